@@ -1,5 +1,8 @@
 package com.concitamedica.config;
 
+import com.concitamedica.security.PasswordEncoderAcotado;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -9,7 +12,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class ApplicationConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry registry,
+                                           @Value("${seguridad.password.hilos:2}") int hilos,
+                                           @Value("${seguridad.password.cola:32}") int capacidadCola) {
+        // BCrypt corre en un pool propio y acotado, fuera de los hilos HTTP.
+        return new PasswordEncoderAcotado(new BCryptPasswordEncoder(), hilos, capacidadCola, registry);
     }
 }
\ No newline at end of file
@@ -20,6 +20,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.concitamedica.domain.rol.Roles.*;
 
@@ -128,16 +130,19 @@ public class DataInitializer {
                 DiaSemana.LUNES, DiaSemana.MARTES, DiaSemana.MIERCOLES, DiaSemana.JUEVES, DiaSemana.VIERNES
         );
 
-        for (DiaSemana dia : diasLaborables) {
-            if (horarioRepository.findByMedicoIdAndDiaSemana(medico.getId(), dia).isEmpty()) {
-                Horario horario = Horario.builder()
+        Set<DiaSemana> diasConHorario = horarioRepository.findAllByMedicoId(medico.getId()).stream()
+                .map(Horario::getDiaSemana)
+                .collect(Collectors.toSet());
+
+        List<Horario> horarios = diasLaborables.stream()
+                .filter(dia -> !diasConHorario.contains(dia))
+                .map(dia -> Horario.builder()
                         .medico(medico)
                         .diaSemana(dia)
                         .horaInicio(LocalTime.of(8, 0))
                         .horaFin(LocalTime.of(17, 0))
-                        .build();
-                horarioRepository.save(horario);
-            }
-        }
+                        .build())
+                .toList();
+        horarioRepository.saveAll(horarios);
     }
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package com.concitamedica.config;
 
+import com.concitamedica.domain.cita.SolapamientoCitas;
+import com.concitamedica.domain.reporte.ColaReportesLlenaException;
+import com.concitamedica.security.HashingSaturadoException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import java.util.stream.Collectors;
 
 import java.util.HashMap;
@@ -23,6 +29,35 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
 
+    @ExceptionHandler(HashingSaturadoException.class)
+    public ResponseEntity<Map<String, String>> handleHashingSaturado(HashingSaturadoException e) {
+        return servicioNoDisponible(e.getMessage(), e.getReintentarEnSegundos());
+    }
+
+    @ExceptionHandler(ColaReportesLlenaException.class)
+    public ResponseEntity<Map<String, String>> handleColaReportesLlena(ColaReportesLlenaException e) {
+        return servicioNoDisponible(e.getMessage(), e.getReintentarEnSegundos());
+    }
+
+    private ResponseEntity<Map<String, String>> servicioNoDisponible(String mensaje, long reintentarEnSegundos) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("message", mensaje);
+        errorResponse.put("error", "Service Unavailable");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(reintentarEnSegundos))
+                .body(errorResponse);
+    }
+
+    // Con un email inexistente Spring Security verifica una contraseña ficticia y envuelve el rechazo del pool.
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<Map<String, String>> handleInternalAuthentication(InternalAuthenticationServiceException e) {
+        if (e.getCause() instanceof HashingSaturadoException saturado) {
+            return handleHashingSaturado(saturado);
+        }
+        return handleRuntimeException(e);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException e) {
         Map<String, String> errorResponse = new HashMap<>();
@@ -43,10 +78,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    // Validación de los elementos de los @RequestBody de tipo lista (p. ej. los endpoints por lote).
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Map<String, String>> handleMethodValidation(HandlerMethodValidationException ex) {
+        Map<String, String> errorResponse = new HashMap<>();
+        String mensaje = ex.getAllErrors().stream()
+                .map(error -> error.getDefaultMessage())
+                .collect(Collectors.joining(". "));
+
+        errorResponse.put("message", mensaje);
+        errorResponse.put("error", "Bad Request");
+
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
     @ExceptionHandler(org.springframework.dao.DataIntegrityViolationException.class)
-    public ResponseEntity<Map<String, String>> handleDbConstraint(Exception e) {
+    public ResponseEntity<Map<String, String>> handleDbConstraint(org.springframework.dao.DataIntegrityViolationException e) {
         Map<String, String> errorResponse = new HashMap<>();
-        errorResponse.put("message", "Error de integridad de datos. Posiblemente el email o documento ya existe, o el dato es muy largo.");
+        if (SolapamientoCitas.esViolacion(e)) {
+            errorResponse.put("message", "El horario seleccionado ya no está disponible en la agenda del médico.");
+        } else {
+            errorResponse.put("message", "Error de integridad de datos. Posiblemente el email o documento ya existe, o el dato es muy largo.");
+        }
         errorResponse.put("error", "Conflict");
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
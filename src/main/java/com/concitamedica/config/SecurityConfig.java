@@ -2,6 +2,7 @@ package com.concitamedica.config;
 
 import com.concitamedica.security.JwtAuthenticationFilter;
 import com.concitamedica.security.AuthLoggingFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,6 +37,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // La petición original ya se autorizó; el despacho ASYNC solo completa respuestas en streaming.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/api/auth/**",          // Endpoints de autenticación
                                 "/swagger-ui.html",      // La página de Swagger UI
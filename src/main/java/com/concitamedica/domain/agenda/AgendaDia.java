@@ -0,0 +1,92 @@
+package com.concitamedica.domain.agenda;
+
+import com.concitamedica.domain.horario.Horario;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Agenda de un médico para una fecha concreta. Cada minuto del día es un bit:
+ * {@code laborables} marca el inicio de cada slot del horario y {@code ocupados}
+ * el inicio de cada cita AGENDADA. Es inmutable; las modificaciones devuelven una copia.
+ */
+final class AgendaDia {
+
+    static final int DURACION_SLOT_MINUTOS = 30;
+    static final int MINUTOS_POR_DIA = 24 * 60;
+    private static final int PALABRAS = (MINUTOS_POR_DIA + 63) >>> 6;
+
+    static final AgendaDia VACIA = new AgendaDia(new long[PALABRAS], new long[PALABRAS]);
+
+    private final long[] laborables;
+    private final long[] ocupados;
+
+    private AgendaDia(long[] laborables, long[] ocupados) {
+        this.laborables = laborables;
+        this.ocupados = ocupados;
+    }
+
+    static AgendaDia construir(Collection<Horario> bloques, Collection<LocalTime> horasOcupadas) {
+        long[] laborables = new long[PALABRAS];
+        long[] ocupados = new long[PALABRAS];
+
+        for (Horario bloque : bloques) {
+            int fin = bloque.getHoraFin().toSecondOfDay();
+            for (int m = bloque.getHoraInicio().toSecondOfDay() / 60; m * 60 < fin; m += DURACION_SLOT_MINUTOS) {
+                laborables[m >>> 6] |= 1L << m;
+            }
+        }
+
+        for (LocalTime hora : horasOcupadas) {
+            int m = minuto(hora);
+            if (m >= 0) {
+                ocupados[m >>> 6] |= 1L << m;
+            }
+        }
+
+        return new AgendaDia(laborables, ocupados);
+    }
+
+    /**
+     * Minuto del día al que corresponde la hora, o -1 si no cae exactamente en un minuto
+     * (en ese caso no puede coincidir con ningún slot).
+     */
+    static int minuto(LocalTime hora) {
+        if (hora.getSecond() != 0 || hora.getNano() != 0) {
+            return -1;
+        }
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    boolean estaLibre(int minuto) {
+        long bit = 1L << minuto;
+        int i = minuto >>> 6;
+        return (laborables[i] & bit) != 0 && (ocupados[i] & bit) == 0;
+    }
+
+    AgendaDia conOcupado(int minuto, boolean ocupado) {
+        long bit = 1L << minuto;
+        int i = minuto >>> 6;
+        if (((ocupados[i] & bit) != 0) == ocupado) {
+            return this;
+        }
+        long[] copia = ocupados.clone();
+        copia[i] = ocupado ? copia[i] | bit : copia[i] & ~bit;
+        return new AgendaDia(laborables, copia);
+    }
+
+    List<LocalTime> slotsLibres() {
+        List<LocalTime> slots = new ArrayList<>();
+        for (int i = 0; i < PALABRAS; i++) {
+            long libres = laborables[i] & ~ocupados[i];
+            while (libres != 0) {
+                int m = (i << 6) + Long.numberOfTrailingZeros(libres);
+                slots.add(LocalTime.of(m / 60, m % 60));
+                libres &= libres - 1;
+            }
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,106 @@
+package com.concitamedica.domain.agenda;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cerrojos por médico repartidos en un número fijo de franjas. Las reservas del mismo médico
+ * esperan su turno en memoria en lugar de competir en la BDD, mientras que las de médicos en
+ * franjas distintas avanzan en paralelo. El cerrojo se libera al terminar la transacción, de
+ * modo que el siguiente en la cola ya ve la cita confirmada.
+ */
+@Component
+public class BloqueoAgendaMedico {
+
+    private static final int BITS_FRANJA = 6;
+    private static final int FRANJAS = 1 << BITS_FRANJA;
+
+    private final ReentrantLock[] cerrojos = new ReentrantLock[FRANJAS];
+    private final Timer[] esperas = new Timer[FRANJAS];
+    private final Counter[] contenciones = new Counter[FRANJAS];
+    private final long timeoutMs;
+
+    public BloqueoAgendaMedico(MeterRegistry registry, @Value("${agenda.bloqueo.timeout-ms:5000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        for (int i = 0; i < FRANJAS; i++) {
+            ReentrantLock cerrojo = new ReentrantLock(true);
+            String franja = String.valueOf(i);
+            cerrojos[i] = cerrojo;
+            esperas[i] = Timer.builder("agenda.bloqueo.espera")
+                    .description("Tiempo de espera para obtener el cerrojo de la agenda")
+                    .tag("franja", franja)
+                    .register(registry);
+            contenciones[i] = Counter.builder("agenda.bloqueo.contencion")
+                    .description("Veces que el cerrojo de la agenda ya estaba tomado")
+                    .tag("franja", franja)
+                    .register(registry);
+            Gauge.builder("agenda.bloqueo.en-cola", cerrojo, ReentrantLock::getQueueLength)
+                    .description("Hilos esperando el cerrojo de la agenda")
+                    .tag("franja", franja)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Bloquea la agenda del médico hasta que termine la transacción en curso.
+     */
+    public void bloquearHastaFinDeTransaccion(Long medicoId) {
+        bloquear(franja(medicoId));
+    }
+
+    /**
+     * Bloquea las agendas de varios médicos, siempre en orden de franja para evitar interbloqueos.
+     */
+    public void bloquearHastaFinDeTransaccion(Collection<Long> medicoIds) {
+        medicoIds.stream()
+                .mapToInt(BloqueoAgendaMedico::franja)
+                .distinct()
+                .sorted()
+                .forEach(this::bloquear);
+    }
+
+    private void bloquear(int franja) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El bloqueo de agenda requiere una transacción activa.");
+        }
+
+        ReentrantLock cerrojo = cerrojos[franja];
+        long inicio = System.nanoTime();
+
+        if (!cerrojo.tryLock()) {
+            contenciones[franja].increment();
+            try {
+                if (!cerrojo.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    esperas[franja].record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                    throw new IllegalStateException("La agenda del médico está recibiendo muchas solicitudes. Intenta nuevamente.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Se interrumpió la espera por la agenda del médico.");
+            }
+        }
+
+        esperas[franja].record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cerrojo.unlock();
+            }
+        });
+    }
+
+    private static int franja(Long medicoId) {
+        return (Long.hashCode(medicoId) * 0x9E3779B9) >>> (Integer.SIZE - BITS_FRANJA);
+    }
+}
@@ -0,0 +1,121 @@
+package com.concitamedica.domain.agenda;
+
+import com.concitamedica.domain.agenda.dto.SlotDisponibleDTO;
+import com.concitamedica.domain.medico.Medico;
+import com.concitamedica.domain.medico.MedicoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Busca los primeros slots libres de una especialidad entre todos sus médicos activos.
+ * Cada médico aporta un cursor que recorre su agenda por bloques de días; una cola de
+ * prioridad mezcla los cursores en orden cronológico y la búsqueda se detiene en cuanto
+ * se alcanza el límite, sin cargar más días de los necesarios.
+ */
+@Service
+@RequiredArgsConstructor
+public class BusquedaDisponibilidadService {
+
+    private static final int DIAS_POR_BLOQUE = 7;
+    private static final int HORIZONTE_DIAS = 90;
+    private static final int MAX_RESULTADOS = 50;
+
+    private final MedicoRepository medicoRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+
+    public List<SlotDisponibleDTO> buscarPrimerosSlots(Long especialidadId, LocalDateTime desde, int limite) {
+        if (limite < 1 || limite > MAX_RESULTADOS) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_RESULTADOS + ".");
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime inicio = desde == null || desde.isBefore(ahora) ? ahora : desde;
+        LocalDate fin = inicio.toLocalDate().plusDays(HORIZONTE_DIAS - 1);
+
+        PriorityQueue<CursorMedico> cola = new PriorityQueue<>(
+                Comparator.comparing((CursorMedico cursor) -> cursor.actual)
+                        .thenComparing(cursor -> cursor.medico.getId())
+        );
+
+        for (Medico medico : medicoRepository.findHabilitadosByEspecialidadId(especialidadId)) {
+            CursorMedico cursor = new CursorMedico(medico, inicio, fin);
+            if (cursor.avanzar()) {
+                cola.add(cursor);
+            }
+        }
+
+        List<SlotDisponibleDTO> resultados = new ArrayList<>(limite);
+
+        while (!cola.isEmpty() && resultados.size() < limite) {
+            CursorMedico cursor = cola.poll();
+            Medico medico = cursor.medico;
+
+            resultados.add(new SlotDisponibleDTO(
+                    medico.getId(),
+                    medico.getUsuario().getNombre() + " " + medico.getUsuario().getApellido(),
+                    medico.getEspecialidad().getNombre(),
+                    cursor.actual
+            ));
+
+            if (cursor.avanzar()) {
+                cola.add(cursor);
+            }
+        }
+
+        return resultados;
+    }
+
+    private final class CursorMedico {
+
+        private final Medico medico;
+        private final LocalDateTime minimo;
+        private final LocalDate fin;
+        private LocalDate siguienteDia;
+        private Iterator<LocalDateTime> slots = Collections.emptyIterator();
+        private LocalDateTime actual;
+
+        private CursorMedico(Medico medico, LocalDateTime minimo, LocalDate fin) {
+            this.medico = medico;
+            this.minimo = minimo;
+            this.fin = fin;
+            this.siguienteDia = minimo.toLocalDate();
+        }
+
+        private boolean avanzar() {
+            while (!slots.hasNext()) {
+                if (siguienteDia.isAfter(fin)) {
+                    return false;
+                }
+
+                LocalDate finBloque = siguienteDia.plusDays(DIAS_POR_BLOQUE - 1);
+                if (finBloque.isAfter(fin)) {
+                    finBloque = fin;
+                }
+
+                List<LocalDateTime> bloque = new ArrayList<>();
+                indiceDisponibilidad.slotsLibres(medico.getId(), siguienteDia, finBloque)
+                        .forEach((fecha, horas) -> horas.forEach(hora -> {
+                            LocalDateTime slot = fecha.atTime(hora);
+                            if (!slot.isBefore(minimo)) {
+                                bloque.add(slot);
+                            }
+                        }));
+
+                slots = bloque.iterator();
+                siguienteDia = finBloque.plusDays(1);
+            }
+
+            actual = slots.next();
+            return true;
+        }
+    }
+}
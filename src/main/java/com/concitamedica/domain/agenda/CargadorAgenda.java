@@ -0,0 +1,83 @@
+package com.concitamedica.domain.agenda;
+
+import com.concitamedica.domain.cita.CitaRepository;
+import com.concitamedica.domain.cita.EstadoCita;
+import com.concitamedica.domain.horario.AgendaSemanal;
+import com.concitamedica.domain.horario.DiaSemana;
+import com.concitamedica.domain.horario.Horario;
+import com.concitamedica.domain.horario.HorarioRepository;
+import com.concitamedica.domain.medico.MedicoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+class CargadorAgenda {
+
+    private final MedicoRepository medicoRepository;
+    private final HorarioRepository horarioRepository;
+    private final CitaRepository citaRepository;
+
+    @Transactional(readOnly = true)
+    public AgendaDia cargarDia(Long medicoId, LocalDate fecha) {
+        boolean habilitado = medicoRepository.findUsuarioEnabledById(medicoId)
+                .orElseThrow(() -> new RuntimeException("Médico no encontrado"));
+
+        if (!habilitado) {
+            return AgendaDia.VACIA;
+        }
+
+        List<Horario> bloques = horarioRepository.findAllByMedicoIdAndDiaSemana(medicoId, DiaSemana.from(fecha));
+
+        if (bloques.isEmpty()) {
+            return AgendaDia.VACIA;
+        }
+
+        List<LocalTime> horasOcupadas = citaRepository.findInicioByMedicoIdAndEstadoAndFechaHoraInicioBetween(
+                        medicoId, EstadoCita.AGENDADA, fecha.atStartOfDay(), fecha.atTime(LocalTime.MAX))
+                .stream()
+                .map(LocalDateTime::toLocalTime)
+                .toList();
+
+        return AgendaDia.construir(bloques, horasOcupadas);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<LocalDate, AgendaDia> cargarRango(Long medicoId, LocalDate desde, LocalDate hasta) {
+        boolean habilitado = medicoRepository.findUsuarioEnabledById(medicoId)
+                .orElseThrow(() -> new RuntimeException("Médico no encontrado"));
+
+        Map<LocalDate, AgendaDia> agendas = new LinkedHashMap<>();
+
+        if (!habilitado) {
+            desde.datesUntil(hasta.plusDays(1)).forEach(fecha -> agendas.put(fecha, AgendaDia.VACIA));
+            return agendas;
+        }
+
+        AgendaSemanal horarios = AgendaSemanal.de(horarioRepository.findAllByMedicoId(medicoId));
+
+        Map<LocalDate, List<LocalTime>> ocupadasPorDia = citaRepository.findInicioByMedicoIdAndEstadoAndFechaHoraInicioBetween(
+                        medicoId, EstadoCita.AGENDADA, desde.atStartOfDay(), hasta.atTime(LocalTime.MAX))
+                .stream()
+                .collect(Collectors.groupingBy(LocalDateTime::toLocalDate,
+                        Collectors.mapping(LocalDateTime::toLocalTime, Collectors.toList())));
+
+        desde.datesUntil(hasta.plusDays(1)).forEach(fecha -> {
+            List<Horario> bloques = horarios.bloques(DiaSemana.from(fecha));
+            agendas.put(fecha, bloques.isEmpty()
+                    ? AgendaDia.VACIA
+                    : AgendaDia.construir(bloques, ocupadasPorDia.getOrDefault(fecha, List.of())));
+        });
+
+        return agendas;
+    }
+}
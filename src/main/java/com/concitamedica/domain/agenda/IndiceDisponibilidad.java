@@ -0,0 +1,176 @@
+package com.concitamedica.domain.agenda;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de slots por médico y fecha. Las agendas se cargan de la BDD la primera
+ * vez que se consultan y a partir de ahí se actualizan en sitio al agendar o cancelar citas,
+ * de modo que consultar la disponibilidad no requiere acceder a la BDD.
+ *
+ * Cada médico tiene un contador de versión que se incrementa antes de cualquier modificación;
+ * una agenda recién cargada sólo se guarda si la versión no cambió durante la carga, así una
+ * cita confirmada en paralelo nunca queda fuera del índice.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndiceDisponibilidad {
+
+    private static final int MAX_AGENDAS = 50_000;
+
+    private final CargadorAgenda cargadorAgenda;
+
+    private final ConcurrentHashMap<Clave, AgendaDia> agendas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> versiones = new ConcurrentHashMap<>();
+
+    private record Clave(Long medicoId, LocalDate fecha) {}
+
+    public List<LocalTime> slotsLibres(Long medicoId, LocalDate fecha) {
+        return obtener(medicoId, fecha).slotsLibres();
+    }
+
+    /**
+     * Slots libres para cada día del rango (ambos extremos incluidos). Los días que no están
+     * en el índice se cargan juntos, con una consulta por tabla para todo el rango.
+     */
+    public Map<LocalDate, List<LocalTime>> slotsLibres(Long medicoId, LocalDate desde, LocalDate hasta) {
+        Map<LocalDate, AgendaDia> encontradas = new LinkedHashMap<>();
+        LocalDate primeraFaltante = null;
+        LocalDate ultimaFaltante = null;
+
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            AgendaDia agenda = agendas.get(new Clave(medicoId, fecha));
+            encontradas.put(fecha, agenda);
+            if (agenda == null) {
+                if (primeraFaltante == null) {
+                    primeraFaltante = fecha;
+                }
+                ultimaFaltante = fecha;
+            }
+        }
+
+        if (primeraFaltante != null) {
+            long versionInicial = version(medicoId).get();
+            Map<LocalDate, AgendaDia> cargadas = cargadorAgenda.cargarRango(medicoId, primeraFaltante, ultimaFaltante);
+
+            if (agendas.size() + cargadas.size() >= MAX_AGENDAS) {
+                purgar();
+            }
+
+            cargadas.forEach((fecha, cargada) -> {
+                if (encontradas.get(fecha) == null) {
+                    encontradas.put(fecha, guardar(new Clave(medicoId, fecha), cargada, versionInicial));
+                }
+            });
+        }
+
+        Map<LocalDate, List<LocalTime>> resultado = new LinkedHashMap<>();
+        encontradas.forEach((fecha, agenda) -> resultado.put(fecha, agenda.slotsLibres()));
+        return resultado;
+    }
+
+    public boolean estaLibre(Long medicoId, LocalDateTime fechaHoraInicio) {
+        int minuto = AgendaDia.minuto(fechaHoraInicio.toLocalTime());
+        return minuto >= 0 && obtener(medicoId, fechaHoraInicio.toLocalDate()).estaLibre(minuto);
+    }
+
+    /**
+     * Marca el slot como ocupado cuando la transacción en curso se confirme.
+     */
+    public void registrarCita(Long medicoId, LocalDateTime fechaHoraInicio) {
+        alConfirmar(() -> actualizar(medicoId, fechaHoraInicio, true));
+    }
+
+    /**
+     * Libera el slot cuando la transacción en curso se confirme.
+     */
+    public void liberarCita(Long medicoId, LocalDateTime fechaHoraInicio) {
+        alConfirmar(() -> actualizar(medicoId, fechaHoraInicio, false));
+    }
+
+    /**
+     * Descarta todas las agendas del médico (cambio de horario, baja o reactivación).
+     */
+    public void invalidarMedico(Long medicoId) {
+        alConfirmar(() -> {
+            version(medicoId).incrementAndGet();
+            agendas.keySet().removeIf(clave -> clave.medicoId().equals(medicoId));
+        });
+    }
+
+    private AgendaDia obtener(Long medicoId, LocalDate fecha) {
+        Clave clave = new Clave(medicoId, fecha);
+        AgendaDia agenda = agendas.get(clave);
+        if (agenda != null) {
+            return agenda;
+        }
+
+        long versionInicial = version(medicoId).get();
+        AgendaDia cargada = cargadorAgenda.cargarDia(medicoId, fecha);
+
+        if (agendas.size() >= MAX_AGENDAS) {
+            purgar();
+        }
+
+        return guardar(clave, cargada, versionInicial);
+    }
+
+    private AgendaDia guardar(Clave clave, AgendaDia cargada, long versionInicial) {
+        AgendaDia guardada = agendas.compute(clave, (k, actual) -> {
+            if (actual != null) {
+                return actual;
+            }
+            return version(clave.medicoId()).get() == versionInicial ? cargada : null;
+        });
+
+        return guardada != null ? guardada : cargada;
+    }
+
+    private void actualizar(Long medicoId, LocalDateTime fechaHoraInicio, boolean ocupado) {
+        version(medicoId).incrementAndGet();
+
+        int minuto = AgendaDia.minuto(fechaHoraInicio.toLocalTime());
+        if (minuto < 0) {
+            return;
+        }
+
+        agendas.computeIfPresent(new Clave(medicoId, fechaHoraInicio.toLocalDate()),
+                (k, agenda) -> agenda.conOcupado(minuto, ocupado));
+    }
+
+    private AtomicLong version(Long medicoId) {
+        return versiones.computeIfAbsent(medicoId, id -> new AtomicLong());
+    }
+
+    private void purgar() {
+        LocalDate hoy = LocalDate.now();
+        agendas.keySet().removeIf(clave -> clave.fecha().isBefore(hoy));
+        if (agendas.size() >= MAX_AGENDAS) {
+            agendas.clear();
+        }
+    }
+
+    private void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.concitamedica.domain.agenda.dto;
+
+import java.time.LocalDateTime;
+
+public record SlotDisponibleDTO(
+        Long medicoId,
+        String nombreMedico,
+        String especialidad,
+        LocalDateTime fechaHoraInicio
+) {}
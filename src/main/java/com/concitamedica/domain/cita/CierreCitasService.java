@@ -0,0 +1,181 @@
+package com.concitamedica.domain.cita;
+
+import com.concitamedica.domain.agenda.IndiceDisponibilidad;
+import com.concitamedica.domain.cita.dto.CierreCitasDTO;
+import com.concitamedica.domain.cita.dto.EstadoCierreDTO;
+import com.concitamedica.domain.cita.dto.PacienteAfectadoDTO;
+import com.concitamedica.domain.usuario.Usuario;
+import com.concitamedica.domain.usuario.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cancela en segundo plano todas las citas AGENDADA de un rango de fechas (cierre de la clínica).
+ * El trabajo avanza por lotes, cada uno con su propia transacción corta, y su progreso se consulta por id.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CierreCitasService {
+
+    private static final int TAMANO_LOTE = 500;
+    private static final Duration RETENCION_TRABAJOS = Duration.ofHours(24);
+
+    private final CitaRepository citaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "cierre-citas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final Map<UUID, TrabajoCierre> trabajos = new ConcurrentHashMap<>();
+
+    private enum EstadoTrabajo { EN_CURSO, COMPLETADO, FALLIDO }
+
+    public EstadoCierreDTO iniciarCierre(CierreCitasDTO datos) {
+        if (!datos.hasta().isAfter(datos.desde())) {
+            throw new IllegalArgumentException("La fecha final del cierre debe ser posterior a la inicial.");
+        }
+        purgarTrabajos();
+
+        boolean todosLosMedicos = datos.medicoIds() == null || datos.medicoIds().isEmpty();
+        // IN () no es válido en SQL: si no se filtra por médico se envía un valor que nunca se evalúa.
+        List<Long> medicoIds = todosLosMedicos ? List.of(0L) : List.copyOf(datos.medicoIds());
+        LocalDateTime ahora = LocalDateTime.now();
+
+        long total = citaRepository.contarParaCierre(
+                datos.desde(), datos.hasta(), ahora, datos.especialidadId(), todosLosMedicos, medicoIds);
+
+        TrabajoCierre trabajo = new TrabajoCierre(UUID.randomUUID(), datos, total, ahora);
+        trabajos.put(trabajo.id, trabajo);
+        ejecutor.execute(() -> ejecutar(trabajo, todosLosMedicos, medicoIds));
+
+        return trabajo.estado();
+    }
+
+    public EstadoCierreDTO consultarCierre(UUID id) {
+        TrabajoCierre trabajo = trabajos.get(id);
+        if (trabajo == null) {
+            throw new RuntimeException("Trabajo de cierre no encontrado");
+        }
+        return trabajo.estado();
+    }
+
+    private void ejecutar(TrabajoCierre trabajo, boolean todosLosMedicos, List<Long> medicoIds) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        Map<Long, Integer> citasPorPaciente = new HashMap<>();
+        CierreCitasDTO datos = trabajo.datos;
+
+        try {
+            List<CitaCancelada> lote;
+            do {
+                lote = transaccion.execute(estado -> {
+                    List<CitaCancelada> canceladas = citaRepository.cancelarLoteParaCierre(
+                            datos.desde(), datos.hasta(), LocalDateTime.now(), datos.especialidadId(),
+                            todosLosMedicos, medicoIds, TAMANO_LOTE);
+                    for (CitaCancelada cita : canceladas) {
+                        indiceDisponibilidad.liberarCita(cita.getMedicoId(), cita.getFechaHoraInicio());
+                    }
+                    return canceladas;
+                });
+
+                for (CitaCancelada cita : lote) {
+                    citasPorPaciente.merge(cita.getPacienteId(), 1, Integer::sum);
+                }
+                trabajo.avanzar(lote.size());
+            } while (lote.size() == TAMANO_LOTE);
+
+            trabajo.terminar(EstadoTrabajo.COMPLETADO, null, pacientesAfectados(citasPorPaciente));
+            log.info("Cierre {} completado: {} citas canceladas, {} pacientes afectados",
+                    trabajo.id, trabajo.canceladas, citasPorPaciente.size());
+        } catch (RuntimeException e) {
+            log.error("Cierre {} interrumpido tras cancelar {} citas", trabajo.id, trabajo.canceladas, e);
+            trabajo.terminar(EstadoTrabajo.FALLIDO, e.getMessage(), pacientesAfectados(citasPorPaciente));
+        }
+    }
+
+    private List<PacienteAfectadoDTO> pacientesAfectados(Map<Long, Integer> citasPorPaciente) {
+        List<Long> ids = new ArrayList<>(citasPorPaciente.keySet());
+        List<PacienteAfectadoDTO> pacientes = new ArrayList<>(ids.size());
+
+        for (int i = 0; i < ids.size(); i += TAMANO_LOTE) {
+            for (Usuario paciente : usuarioRepository.findAllById(ids.subList(i, Math.min(i + TAMANO_LOTE, ids.size())))) {
+                pacientes.add(new PacienteAfectadoDTO(
+                        paciente.getId(),
+                        paciente.getNombre() + " " + paciente.getApellido(),
+                        paciente.getEmail(),
+                        paciente.getTelefono(),
+                        citasPorPaciente.get(paciente.getId())
+                ));
+            }
+        }
+        return pacientes;
+    }
+
+    private void purgarTrabajos() {
+        LocalDateTime limite = LocalDateTime.now().minus(RETENCION_TRABAJOS);
+        trabajos.values().removeIf(trabajo -> trabajo.finalizado != null && trabajo.finalizado.isBefore(limite));
+    }
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private static final class TrabajoCierre {
+
+        private final UUID id;
+        private final CierreCitasDTO datos;
+        private final long totalEstimado;
+        private final LocalDateTime iniciado;
+
+        private volatile EstadoTrabajo estado = EstadoTrabajo.EN_CURSO;
+        private volatile long canceladas;
+        private volatile int lotesProcesados;
+        private volatile LocalDateTime finalizado;
+        private volatile String error;
+        private volatile List<PacienteAfectadoDTO> pacientesAfectados = List.of();
+
+        private TrabajoCierre(UUID id, CierreCitasDTO datos, long totalEstimado, LocalDateTime iniciado) {
+            this.id = id;
+            this.datos = datos;
+            this.totalEstimado = totalEstimado;
+            this.iniciado = iniciado;
+        }
+
+        private void avanzar(int cantidad) {
+            canceladas += cantidad;
+            lotesProcesados++;
+        }
+
+        private void terminar(EstadoTrabajo estadoFinal, String error, List<PacienteAfectadoDTO> pacientes) {
+            this.error = error;
+            this.pacientesAfectados = List.copyOf(pacientes);
+            this.finalizado = LocalDateTime.now();
+            this.estado = estadoFinal;
+        }
+
+        private EstadoCierreDTO estado() {
+            return new EstadoCierreDTO(id, estado.name(), datos.desde(), datos.hasta(), totalEstimado,
+                    canceladas, lotesProcesados, iniciado, finalizado, error, pacientesAfectados);
+        }
+    }
+}
@@ -7,9 +7,15 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
-@Table(name = "citas")
+@Table(name = "citas", indexes = {
+        @Index(name = "idx_citas_inicio_id", columnList = "fecha_hora_inicio, id"),
+        @Index(name = "idx_citas_estado_inicio_id", columnList = "estado, fecha_hora_inicio, id"),
+        @Index(name = "idx_citas_medico_inicio_id", columnList = "medico_id, fecha_hora_inicio, id"),
+        @Index(name = "idx_citas_paciente_inicio_id", columnList = "paciente_id, fecha_hora_inicio, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,7 +24,8 @@ import java.time.LocalDateTime;
 public class Cita extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "citas_seq")
+    @SequenceGenerator(name = "citas_seq", sequenceName = "citas_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -38,4 +45,7 @@ public class Cita extends Auditable {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private EstadoCita estado;
+
+    @Column(name = "serie_id")
+    private UUID serieId;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.concitamedica.domain.cita;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila devuelta por las cancelaciones masivas de {@link CitaRepository}.
+ */
+public interface CitaCancelada {
+
+    Long getId();
+
+    Long getMedicoId();
+
+    Long getPacienteId();
+
+    LocalDateTime getFechaHoraInicio();
+}
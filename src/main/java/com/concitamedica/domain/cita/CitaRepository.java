@@ -2,16 +2,89 @@ package com.concitamedica.domain.cita;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import com.concitamedica.domain.cita.dto.CitaMedicoResponseDTO;
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 @Repository
-public interface CitaRepository extends JpaRepository<Cita, Long> {
+public interface CitaRepository extends JpaRepository<Cita, Long>, CitaRepositoryCustom {
+
+    /**
+     * Proyección de una cita con los nombres de médico, paciente y especialidad resueltos en la
+     * misma sentencia, para listados que no deben recorrer las asociaciones LAZY.
+     */
+    String SELECT_CITA_RESPONSE = "SELECT new com.concitamedica.domain.cita.dto.CitaResponseDTO(" +
+            "c.id, m.id, p.id, CONCAT(mu.nombre, ' ', mu.apellido), CONCAT(p.nombre, ' ', p.apellido), " +
+            "e.nombre, c.fechaHoraInicio, c.fechaHoraFin, c.estado) " +
+            "FROM Cita c " +
+            "JOIN c.medico m " +
+            "JOIN m.usuario mu " +
+            "JOIN m.especialidad e " +
+            "JOIN c.paciente p ";
+
+    @Query(SELECT_CITA_RESPONSE +
+            "WHERE p.email = :emailPaciente " +
+            "AND c.fechaHoraInicio > :ahora " +
+            "ORDER BY c.fechaHoraInicio ASC")
+    List<CitaResponseDTO> findProximasCitaResponseByPacienteEmail(
+            @Param("emailPaciente") String emailPaciente,
+            @Param("ahora") LocalDateTime ahora
+    );
+
+    @Query("SELECT new com.concitamedica.domain.cita.dto.CitaMedicoResponseDTO(" +
+            "c.id, p.nombre, c.fechaHoraInicio, c.fechaHoraFin, c.estado) " +
+            "FROM Cita c " +
+            "JOIN c.paciente p " +
+            "WHERE c.medico.id = :medicoId " +
+            "AND c.fechaHoraInicio BETWEEN :inicio AND :fin")
+    List<CitaMedicoResponseDTO> findAgendaByMedicoIdAndFechaHoraInicioBetween(
+            @Param("medicoId") Long medicoId,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin
+    );
+
     List<Cita> findAllByMedicoIdAndFechaHoraInicioBetween(Long medicoId, LocalDateTime fechaInicio, LocalDateTime fechaFin);
     List<Cita> findAllByPacienteIdAndFechaHoraInicioAfterOrderByFechaHoraInicioAsc(Long pacienteId, LocalDateTime ahora);
 
+    @Query("SELECT c.fechaHoraInicio FROM Cita c " +
+            "WHERE c.medico.id = :medicoId " +
+            "AND c.estado = :estado " +
+            "AND c.fechaHoraInicio BETWEEN :inicio AND :fin")
+    List<LocalDateTime> findInicioByMedicoIdAndEstadoAndFechaHoraInicioBetween(
+            @Param("medicoId") Long medicoId,
+            @Param("estado") EstadoCita estado,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin
+    );
+
+    @Query("SELECT new com.concitamedica.domain.cita.IntervaloCita(" +
+            "c.paciente.id, c.medico.id, c.medico.especialidad.id, c.fechaHoraInicio, c.fechaHoraFin) " +
+            "FROM Cita c " +
+            "WHERE c.medico.id IN :medicoIds " +
+            "AND c.estado = 'AGENDADA' " +
+            "AND c.fechaHoraInicio < :hasta " +
+            "AND c.fechaHoraFin > :desde")
+    List<IntervaloCita> findAgendadasByMedicoIdInEntre(
+            @Param("medicoIds") Collection<Long> medicoIds,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta
+    );
+
+    @Query("SELECT new com.concitamedica.domain.cita.IntervaloCita(" +
+            "c.paciente.id, c.medico.id, c.medico.especialidad.id, c.fechaHoraInicio, c.fechaHoraFin) " +
+            "FROM Cita c " +
+            "WHERE c.paciente.id IN :pacienteIds " +
+            "AND c.estado = 'AGENDADA' " +
+            "AND c.fechaHoraFin > :desde")
+    List<IntervaloCita> findAgendadasByPacienteIdInDesde(
+            @Param("pacienteIds") Collection<Long> pacienteIds,
+            @Param("desde") LocalDateTime desde
+    );
+
     boolean existsByPacienteIdAndFechaHoraInicio(Long pacienteId, LocalDateTime fechaHoraInicio);
 
     boolean existsByPacienteIdAndMedicoIdAndFechaHoraInicioBetween(
@@ -22,11 +95,117 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
             Long pacienteId, LocalDateTime inicio, LocalDateTime fin
     );
 
-    List<Cita> findAllByOrderByFechaHoraInicioDesc();
-
     void deleteAllByPacienteId(Long pacienteId);
 
-    List<Cita> findByMedicoIdAndFechaHoraInicioAfterAndEstado(Long medicoId, LocalDateTime fecha, EstadoCita estado);
+    /**
+     * Cancela las citas futuras del médico cuyo inicio ya no cae dentro de ningún bloque de su horario
+     * y devuelve los ids cancelados.
+     */
+    @Query(value = """
+            UPDATE citas c
+            SET estado = 'CANCELADA_ADMIN',
+                fecha_actualizacion = :ahora
+            WHERE c.medico_id = :medicoId
+              AND c.estado = 'AGENDADA'
+              AND c.fecha_hora_inicio > :ahora
+              AND NOT EXISTS (
+                  SELECT 1 FROM horarios h
+                  WHERE h.medico_id = c.medico_id
+                    AND h.dia_semana = (ARRAY['LUNES', 'MARTES', 'MIERCOLES', 'JUEVES', 'VIERNES', 'SABADO', 'DOMINGO'])
+                                       [CAST(EXTRACT(ISODOW FROM c.fecha_hora_inicio) AS int)]
+                    AND CAST(c.fecha_hora_inicio AS time) >= h.hora_inicio
+                    AND CAST(c.fecha_hora_inicio AS time) < h.hora_fin
+              )
+            RETURNING c.id
+            """, nativeQuery = true)
+    List<Long> cancelarFueraDeHorario(@Param("medicoId") Long medicoId, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cancela todas las citas AGENDADA futuras del médico.
+     */
+    @Query(value = """
+            UPDATE citas
+            SET estado = 'CANCELADA_ADMIN',
+                fecha_actualizacion = :ahora
+            WHERE medico_id = :medicoId
+              AND estado = 'AGENDADA'
+              AND fecha_hora_inicio > :ahora
+            RETURNING id AS "id", medico_id AS "medicoId", paciente_id AS "pacienteId",
+                      fecha_hora_inicio AS "fechaHoraInicio"
+            """, nativeQuery = true)
+    List<CitaCancelada> cancelarAgendadasFuturasDeMedico(@Param("medicoId") Long medicoId, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cancela todas las citas AGENDADA futuras del paciente.
+     */
+    @Query(value = """
+            UPDATE citas
+            SET estado = 'CANCELADA_ADMIN',
+                fecha_actualizacion = :ahora
+            WHERE paciente_id = :pacienteId
+              AND estado = 'AGENDADA'
+              AND fecha_hora_inicio > :ahora
+            RETURNING id AS "id", medico_id AS "medicoId", paciente_id AS "pacienteId",
+                      fecha_hora_inicio AS "fechaHoraInicio"
+            """, nativeQuery = true)
+    List<CitaCancelada> cancelarAgendadasFuturasDePaciente(@Param("pacienteId") Long pacienteId, @Param("ahora") LocalDateTime ahora);
+
+    @Query(value = """
+            SELECT COUNT(*)
+            FROM citas c
+            JOIN medicos m ON m.id = c.medico_id
+            WHERE c.estado = 'AGENDADA'
+              AND c.fecha_hora_inicio >= :desde
+              AND c.fecha_hora_inicio < :hasta
+              AND c.fecha_hora_inicio > :ahora
+              AND (CAST(:especialidadId AS bigint) IS NULL OR m.especialidad_id = :especialidadId)
+              AND (:todosLosMedicos OR c.medico_id IN (:medicoIds))
+            """, nativeQuery = true)
+    long contarParaCierre(
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("ahora") LocalDateTime ahora,
+            @Param("especialidadId") Long especialidadId,
+            @Param("todosLosMedicos") boolean todosLosMedicos,
+            @Param("medicoIds") Collection<Long> medicoIds
+    );
+
+    /**
+     * Cancela como máximo {@code tamanoLote} citas AGENDADA futuras que cumplen los filtros del cierre.
+     * Se llama repetidamente, cada vez en su propia transacción, hasta que no devuelve filas.
+     */
+    @Query(value = """
+            WITH lote AS (
+                SELECT c.id
+                FROM citas c
+                JOIN medicos m ON m.id = c.medico_id
+                WHERE c.estado = 'AGENDADA'
+                  AND c.fecha_hora_inicio >= :desde
+                  AND c.fecha_hora_inicio < :hasta
+                  AND c.fecha_hora_inicio > :ahora
+                  AND (CAST(:especialidadId AS bigint) IS NULL OR m.especialidad_id = :especialidadId)
+                  AND (:todosLosMedicos OR c.medico_id IN (:medicoIds))
+                ORDER BY c.id
+                LIMIT :tamanoLote
+                FOR UPDATE OF c
+            )
+            UPDATE citas c
+            SET estado = 'CANCELADA_ADMIN',
+                fecha_actualizacion = :ahora
+            FROM lote
+            WHERE c.id = lote.id
+            RETURNING c.id AS "id", c.medico_id AS "medicoId", c.paciente_id AS "pacienteId",
+                      c.fecha_hora_inicio AS "fechaHoraInicio"
+            """, nativeQuery = true)
+    List<CitaCancelada> cancelarLoteParaCierre(
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("ahora") LocalDateTime ahora,
+            @Param("especialidadId") Long especialidadId,
+            @Param("todosLosMedicos") boolean todosLosMedicos,
+            @Param("medicoIds") Collection<Long> medicoIds,
+            @Param("tamanoLote") int tamanoLote
+    );
 
     void deleteAllByMedicoId(Long medicoId);
 
@@ -43,6 +222,94 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
             @Param("fechaActual") LocalDateTime fechaActual
     );
 
-
+    /**
+     * Valida y agenda una cita en una sola sentencia: paciente y médico existentes, sin otra cita
+     * pendiente de la misma especialidad, sin cruce con otra cita del paciente, médico activo con
+     * un bloque de horario que contenga el slot y slot libre. Sólo inserta si todo se cumple.
+     * <p>
+     * El id sale de {@code nextval('citas_seq')}, la misma secuencia que usa Hibernate con incremento 50.
+     * Cada llamada consume un bloque entero y las inserciones nativas dejan huecos de hasta 49 ids, pero
+     * nunca chocan con los rangos que Hibernate ya tiene reservados. Una secuencia propia de incremento 1
+     * sí podría devolver ids de esos rangos.
+     */
+    @Query(value = """
+            WITH solicitud AS (
+                SELECT p.id AS paciente_id,
+                       p.nombre || ' ' || p.apellido AS nombre_paciente,
+                       m.id AS medico_id,
+                       mu.nombre || ' ' || mu.apellido AS nombre_medico,
+                       e.nombre AS especialidad,
+                       CASE
+                           WHEN p.id IS NULL THEN 'PACIENTE_NO_ENCONTRADO'
+                           WHEN m.id IS NULL THEN 'MEDICO_NO_ENCONTRADO'
+                           WHEN EXISTS (
+                               SELECT 1 FROM citas c
+                               JOIN medicos cm ON cm.id = c.medico_id
+                               WHERE c.paciente_id = p.id
+                                 AND cm.especialidad_id = m.especialidad_id
+                                 AND c.estado = 'AGENDADA'
+                                 AND c.fecha_hora_inicio > :ahora
+                           ) THEN 'CITA_PENDIENTE_ESPECIALIDAD'
+                           WHEN conflicto.inicio IS NOT NULL THEN 'CONFLICTO_PACIENTE'
+                           WHEN NOT mu.enabled OR NOT EXISTS (
+                               SELECT 1 FROM horarios h
+                               WHERE h.medico_id = m.id
+                                 AND h.dia_semana = :diaSemana
+                                 AND CAST(:inicio AS time) >= h.hora_inicio
+                                 AND CAST(:inicio AS time) < h.hora_fin
+                                 AND MOD(CAST(EXTRACT(EPOCH FROM (CAST(:inicio AS time) - h.hora_inicio)) AS bigint), 1800) = 0
+                           ) THEN 'SLOT_NO_DISPONIBLE'
+                           WHEN EXISTS (
+                               SELECT 1 FROM citas c
+                               WHERE c.medico_id = m.id
+                                 AND c.estado = 'AGENDADA'
+                                 AND c.fecha_hora_inicio < :fin
+                                 AND c.fecha_hora_fin > :inicio
+                           ) THEN 'SLOT_NO_DISPONIBLE'
+                       END AS motivo,
+                       conflicto.nombre_medico || ' - ' || to_char(conflicto.inicio, 'HH24:MI') AS detalle
+                FROM (SELECT 1) AS uno
+                LEFT JOIN usuarios p ON p.email = :emailPaciente
+                LEFT JOIN medicos m ON m.id = :medicoId
+                LEFT JOIN usuarios mu ON mu.id = m.usuario_id
+                LEFT JOIN especialidades e ON e.id = m.especialidad_id
+                LEFT JOIN LATERAL (
+                    SELECT cmu.nombre AS nombre_medico, c.fecha_hora_inicio AS inicio
+                    FROM citas c
+                    JOIN medicos cm ON cm.id = c.medico_id
+                    JOIN usuarios cmu ON cmu.id = cm.usuario_id
+                    WHERE c.paciente_id = p.id
+                      AND c.estado = 'AGENDADA'
+                      AND c.fecha_hora_inicio < :fin
+                      AND c.fecha_hora_fin > :inicio
+                    ORDER BY c.fecha_hora_inicio
+                    LIMIT 1
+                ) conflicto ON TRUE
+            ),
+            insertada AS (
+                INSERT INTO citas (id, paciente_id, medico_id, fecha_hora_inicio, fecha_hora_fin, estado,
+                                   fecha_creacion, fecha_actualizacion)
+                SELECT nextval('citas_seq'), paciente_id, medico_id, :inicio, :fin, 'AGENDADA', :ahora, :ahora
+                FROM solicitud
+                WHERE motivo IS NULL
+                RETURNING id
+            )
+            SELECT i.id AS "id",
+                   s.motivo AS "motivo",
+                   s.detalle AS "detalle",
+                   s.paciente_id AS "pacienteId",
+                   s.nombre_paciente AS "nombrePaciente",
+                   s.nombre_medico AS "nombreMedico",
+                   s.especialidad AS "especialidad"
+            FROM solicitud s
+            LEFT JOIN insertada i ON TRUE
+            """, nativeQuery = true)
+    ResultadoAgendamiento agendarSiDisponible(
+            @Param("emailPaciente") String emailPaciente,
+            @Param("medicoId") Long medicoId,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin,
+            @Param("diaSemana") String diaSemana,
+            @Param("ahora") LocalDateTime ahora
+    );
 }
-
@@ -0,0 +1,37 @@
+package com.concitamedica.domain.cita;
+
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface CitaRepositoryCustom {
+
+    /**
+     * Hasta {@code limite} citas que cumplen el filtro, ordenadas por (fechaHoraInicio, id) descendente
+     * y posteriores al cursor en ese orden (o desde el principio si el cursor es nulo).
+     */
+    List<CitaResponseDTO> buscarPagina(FiltroCitas filtro, CursorCita despuesDe, int limite);
+
+    /**
+     * Todas las citas que cumplen el filtro en orden cronológico, leídas del servidor por bloques.
+     * Debe consumirse y cerrarse dentro de una transacción.
+     */
+    Stream<CitaResponseDTO> streamParaExportar(FiltroCitas filtro);
+
+    /**
+     * Igual que {@link #streamParaExportar} pero con las citas más recientes primero, como en los reportes.
+     */
+    Stream<CitaResponseDTO> streamParaReporte(FiltroCitas filtro);
+
+    /**
+     * Número de citas que cumplen el filtro por estado, agrupadas en la BDD. Los estados sin citas no aparecen.
+     */
+    Map<EstadoCita, Long> contarPorEstado(FiltroCitas filtro);
+
+    /**
+     * Número de citas que cumplen el filtro por nombre de especialidad, en orden alfabético.
+     */
+    Map<String, Long> contarPorEspecialidad(FiltroCitas filtro);
+}
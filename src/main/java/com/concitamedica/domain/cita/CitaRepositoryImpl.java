@@ -0,0 +1,126 @@
+package com.concitamedica.domain.cita;
+
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class CitaRepositoryImpl implements CitaRepositoryCustom {
+
+    private static final int TAMANO_FETCH = 1_000;
+    private static final String FROM_CITAS = "FROM Cita c JOIN c.medico m JOIN m.especialidad e JOIN c.paciente p ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CitaResponseDTO> buscarPagina(FiltroCitas filtro, CursorCita despuesDe, int limite) {
+        return crearConsulta(filtro, despuesDe, "ORDER BY c.fechaHoraInicio DESC, c.id DESC")
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<CitaResponseDTO> streamParaExportar(FiltroCitas filtro) {
+        return stream(filtro, "ORDER BY c.fechaHoraInicio, c.id");
+    }
+
+    @Override
+    public Stream<CitaResponseDTO> streamParaReporte(FiltroCitas filtro) {
+        return stream(filtro, "ORDER BY c.fechaHoraInicio DESC, c.id DESC");
+    }
+
+    private Stream<CitaResponseDTO> stream(FiltroCitas filtro, String orden) {
+        return crearConsulta(filtro, null, orden)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, TAMANO_FETCH)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public Map<EstadoCita, Long> contarPorEstado(FiltroCitas filtro) {
+        Map<EstadoCita, Long> conteo = new EnumMap<>(EstadoCita.class);
+        for (Object[] fila : contarAgrupado(filtro, "c.estado")) {
+            conteo.put((EstadoCita) fila[0], (Long) fila[1]);
+        }
+        return conteo;
+    }
+
+    @Override
+    public Map<String, Long> contarPorEspecialidad(FiltroCitas filtro) {
+        Map<String, Long> conteo = new LinkedHashMap<>();
+        for (Object[] fila : contarAgrupado(filtro, "e.nombre")) {
+            conteo.put((String) fila[0], (Long) fila[1]);
+        }
+        return conteo;
+    }
+
+    private List<Object[]> contarAgrupado(FiltroCitas filtro, String agrupacion) {
+        Map<String, Object> parametros = new HashMap<>();
+        String jpql = "SELECT " + agrupacion + ", COUNT(c) " + FROM_CITAS
+                + where(filtro, null, parametros)
+                + "GROUP BY " + agrupacion + " ORDER BY " + agrupacion;
+
+        TypedQuery<Object[]> consulta = entityManager.createQuery(jpql, Object[].class);
+        parametros.forEach(consulta::setParameter);
+        return consulta.getResultList();
+    }
+
+    private TypedQuery<CitaResponseDTO> crearConsulta(FiltroCitas filtro, CursorCita despuesDe, String orden) {
+        Map<String, Object> parametros = new HashMap<>();
+        String jpql = CitaRepository.SELECT_CITA_RESPONSE + where(filtro, despuesDe, parametros) + orden;
+
+        TypedQuery<CitaResponseDTO> consulta = entityManager.createQuery(jpql, CitaResponseDTO.class);
+        parametros.forEach(consulta::setParameter);
+        return consulta;
+    }
+
+    /**
+     * Cláusula WHERE (vacía si no hay filtros) sobre los alias c, m, e y p; deja sus valores en {@code parametros}.
+     */
+    private String where(FiltroCitas filtro, CursorCita despuesDe, Map<String, Object> parametros) {
+        List<String> condiciones = new ArrayList<>();
+
+        if (filtro.estado() != null) {
+            condiciones.add("c.estado = :estado");
+            parametros.put("estado", filtro.estado());
+        }
+        if (filtro.medicoId() != null) {
+            condiciones.add("m.id = :medicoId");
+            parametros.put("medicoId", filtro.medicoId());
+        }
+        if (filtro.pacienteId() != null) {
+            condiciones.add("p.id = :pacienteId");
+            parametros.put("pacienteId", filtro.pacienteId());
+        }
+        if (filtro.especialidadId() != null) {
+            condiciones.add("e.id = :especialidadId");
+            parametros.put("especialidadId", filtro.especialidadId());
+        }
+        if (filtro.desde() != null) {
+            condiciones.add("c.fechaHoraInicio >= :desde");
+            parametros.put("desde", filtro.desde());
+        }
+        if (filtro.hasta() != null) {
+            condiciones.add("c.fechaHoraInicio < :hasta");
+            parametros.put("hasta", filtro.hasta());
+        }
+        if (despuesDe != null) {
+            // Comparación de tuplas: el índice (fecha_hora_inicio, id) permite saltar directamente al cursor.
+            condiciones.add("(c.fechaHoraInicio, c.id) < (:cursorFecha, :cursorId)");
+            parametros.put("cursorFecha", despuesDe.fechaHoraInicio());
+            parametros.put("cursorId", despuesDe.id());
+        }
+
+        return condiciones.isEmpty() ? "" : "WHERE " + String.join(" AND ", condiciones) + " ";
+    }
+}
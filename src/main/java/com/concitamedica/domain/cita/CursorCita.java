@@ -0,0 +1,37 @@
+package com.concitamedica.domain.cita;
+
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de la última cita devuelta en el listado paginado, ordenado por
+ * (fechaHoraInicio, id) descendente. Se intercambia con el cliente como texto opaco.
+ */
+public record CursorCita(LocalDateTime fechaHoraInicio, Long id) {
+
+    public static CursorCita de(CitaResponseDTO cita) {
+        return new CursorCita(cita.fechaHoraInicio(), cita.id());
+    }
+
+    public String codificar() {
+        String valor = fechaHoraInicio + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorCita decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf('|');
+            return new CursorCita(
+                    LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido.");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.concitamedica.domain.cita;
+
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportacionCitasService {
+
+    private static final String CABECERA_CSV =
+            "id,medicoId,pacienteId,nombreMedico,nombrePaciente,especialidad,fechaHoraInicio,fechaHoraFin,estado";
+
+    private final CitaRepository citaRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Escribe las citas en la salida a medida que llegan de la BDD, sin acumularlas: la memoria usada
+     * no depende del número de filas exportadas.
+     */
+    public void exportar(FiltroCitas filtro, FormatoExportacion formato, OutputStream salida) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(true);
+
+        transaccion.executeWithoutResult(estado -> {
+            try (Stream<CitaResponseDTO> citas = citaRepository.streamParaExportar(filtro)) {
+                Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+                if (formato == FormatoExportacion.CSV) {
+                    escritor.write(CABECERA_CSV);
+                    escritor.write('\n');
+                }
+
+                Iterator<CitaResponseDTO> iterador = citas.iterator();
+                while (iterador.hasNext()) {
+                    CitaResponseDTO cita = iterador.next();
+                    escritor.write(formato == FormatoExportacion.CSV ? filaCsv(cita) : objectMapper.writeValueAsString(cita));
+                    escritor.write('\n');
+                }
+                escritor.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String filaCsv(CitaResponseDTO cita) {
+        return String.join(",",
+                String.valueOf(cita.id()),
+                String.valueOf(cita.medicoId()),
+                String.valueOf(cita.pacienteId()),
+                campoCsv(cita.nombreMedico()),
+                campoCsv(cita.nombrePaciente()),
+                campoCsv(cita.especialidad()),
+                String.valueOf(cita.fechaHoraInicio()),
+                String.valueOf(cita.fechaHoraFin()),
+                cita.estado()
+        );
+    }
+
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,15 @@
+package com.concitamedica.domain.cita;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionales del listado de citas; los campos nulos no filtran.
+ */
+public record FiltroCitas(
+        EstadoCita estado,
+        Long medicoId,
+        Long pacienteId,
+        Long especialidadId,
+        LocalDateTime desde,
+        LocalDateTime hasta
+) {}
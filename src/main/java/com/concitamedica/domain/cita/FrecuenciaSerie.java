@@ -0,0 +1,25 @@
+package com.concitamedica.domain.cita;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+public enum FrecuenciaSerie {
+    DIARIA(ChronoUnit.DAYS),
+    SEMANAL(ChronoUnit.WEEKS);
+
+    private final ChronoUnit unidad;
+
+    FrecuenciaSerie(ChronoUnit unidad) {
+        this.unidad = unidad;
+    }
+
+    public List<LocalDateTime> expandir(LocalDateTime inicio, int intervalo, int repeticiones) {
+        List<LocalDateTime> ocurrencias = new ArrayList<>(repeticiones);
+        for (int i = 0; i < repeticiones; i++) {
+            ocurrencias.add(inicio.plus((long) i * intervalo, unidad));
+        }
+        return ocurrencias;
+    }
+}
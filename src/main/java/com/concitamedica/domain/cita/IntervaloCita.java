@@ -0,0 +1,18 @@
+package com.concitamedica.domain.cita;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos mínimos de una cita AGENDADA para validar cruces sin cargar la entidad completa.
+ */
+public record IntervaloCita(
+        Long pacienteId,
+        Long medicoId,
+        Long especialidadId,
+        LocalDateTime inicio,
+        LocalDateTime fin
+) {
+    public boolean seSuperpone(LocalDateTime otroInicio, LocalDateTime otroFin) {
+        return otroInicio.isBefore(fin) && otroFin.isAfter(inicio);
+    }
+}
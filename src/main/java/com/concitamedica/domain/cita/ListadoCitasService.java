@@ -0,0 +1,42 @@
+package com.concitamedica.domain.cita;
+
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+import com.concitamedica.domain.cita.dto.PaginaCitasDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class ListadoCitasService {
+
+    private static final int LIMITE_MAXIMO = 200;
+
+    private final CitaRepository citaRepository;
+
+    /**
+     * Página del listado de citas (más recientes primero). Se pide una fila de más para saber
+     * si hay página siguiente sin contar el total.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCitasDTO listar(FiltroCitas filtro, String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO + ".");
+        }
+        if (filtro.desde() != null && filtro.hasta() != null && !filtro.hasta().isAfter(filtro.desde())) {
+            throw new IllegalArgumentException("La fecha final debe ser posterior a la fecha inicial.");
+        }
+
+        CursorCita despuesDe = cursor == null || cursor.isBlank() ? null : CursorCita.decodificar(cursor);
+        List<CitaResponseDTO> citas = citaRepository.buscarPagina(filtro, despuesDe, limite + 1);
+
+        if (citas.size() <= limite) {
+            return new PaginaCitasDTO(citas, null);
+        }
+
+        List<CitaResponseDTO> pagina = List.copyOf(citas.subList(0, limite));
+        return new PaginaCitasDTO(pagina, CursorCita.de(pagina.get(limite - 1)).codificar());
+    }
+}
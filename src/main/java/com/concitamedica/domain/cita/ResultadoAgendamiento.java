@@ -0,0 +1,28 @@
+package com.concitamedica.domain.cita;
+
+/**
+ * Resultado de {@link CitaRepository#agendarSiDisponible}: si {@code motivo} es nulo la cita
+ * se insertó y {@code id} es su identificador; si no, {@code motivo} indica por qué se rechazó.
+ */
+public interface ResultadoAgendamiento {
+
+    String PACIENTE_NO_ENCONTRADO = "PACIENTE_NO_ENCONTRADO";
+    String MEDICO_NO_ENCONTRADO = "MEDICO_NO_ENCONTRADO";
+    String CITA_PENDIENTE_ESPECIALIDAD = "CITA_PENDIENTE_ESPECIALIDAD";
+    String CONFLICTO_PACIENTE = "CONFLICTO_PACIENTE";
+    String SLOT_NO_DISPONIBLE = "SLOT_NO_DISPONIBLE";
+
+    Long getId();
+
+    String getMotivo();
+
+    String getDetalle();
+
+    Long getPacienteId();
+
+    String getNombrePaciente();
+
+    String getNombreMedico();
+
+    String getEspecialidad();
+}
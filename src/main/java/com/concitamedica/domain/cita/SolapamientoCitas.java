@@ -0,0 +1,21 @@
+package com.concitamedica.domain.cita;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Reconoce la violación de la restricción de exclusión {@code citas_medico_sin_solapamiento}
+ * (SQLSTATE 23P01), que impide que un médico tenga dos citas AGENDADAS solapadas.
+ */
+public final class SolapamientoCitas {
+
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private SolapamientoCitas() {}
+
+    public static boolean esViolacion(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && EXCLUSION_VIOLATION.equals(sqlException.getSQLState());
+    }
+}
@@ -0,0 +1,12 @@
+package com.concitamedica.domain.cita.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record CierreCitasDTO(
+        @NotNull LocalDateTime desde,
+        @NotNull LocalDateTime hasta,
+        Long especialidadId,
+        List<Long> medicoIds
+) {}
@@ -1,5 +1,7 @@
 package com.concitamedica.domain.cita.dto;
 
+import com.concitamedica.domain.cita.EstadoCita;
+
 import java.time.LocalDateTime;
 
 public record CitaMedicoResponseDTO(
@@ -8,4 +10,9 @@ public record CitaMedicoResponseDTO(
         LocalDateTime fechaHoraInicio,
         LocalDateTime fechaHoraFin,
         String estado
-) {}
+) {
+    public CitaMedicoResponseDTO(Long citaId, String nombrePaciente, LocalDateTime fechaHoraInicio,
+                                 LocalDateTime fechaHoraFin, EstadoCita estado) {
+        this(citaId, nombrePaciente, fechaHoraInicio, fechaHoraFin, estado.name());
+    }
+}
@@ -1,5 +1,7 @@
 package com.concitamedica.domain.cita.dto;
 
+import com.concitamedica.domain.cita.EstadoCita;
+
 import java.time.LocalDateTime;
 
 public record CitaResponseDTO(
@@ -15,6 +17,14 @@ public record CitaResponseDTO(
 ) {
     public CitaResponseDTO {}
 
+    // Usado por las consultas JPQL con expresión de constructor de CitaRepository.
+    public CitaResponseDTO(Long id, Long medicoId, Long pacienteId, String nombreMedico, String nombrePaciente,
+                           String especialidad, LocalDateTime fechaHoraInicio, LocalDateTime fechaHoraFin,
+                           EstadoCita estado) {
+        this(id, medicoId, pacienteId, nombreMedico, nombrePaciente, especialidad,
+                fechaHoraInicio, fechaHoraFin, estado.name());
+    }
+
     public LocalDateTime getFechaHoraInicio() { return fechaHoraInicio; }
     public String getNombrePaciente() { return nombrePaciente; }
     public String getNombreMedico() { return nombreMedico; }
@@ -0,0 +1,19 @@
+package com.concitamedica.domain.cita.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record EstadoCierreDTO(
+        UUID id,
+        String estado,
+        LocalDateTime desde,
+        LocalDateTime hasta,
+        long totalEstimado,
+        long canceladas,
+        int lotesProcesados,
+        LocalDateTime iniciado,
+        LocalDateTime finalizado,
+        String error,
+        List<PacienteAfectadoDTO> pacientesAfectados
+) {}
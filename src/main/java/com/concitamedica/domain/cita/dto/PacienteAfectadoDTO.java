@@ -0,0 +1,9 @@
+package com.concitamedica.domain.cita.dto;
+
+public record PacienteAfectadoDTO(
+        Long pacienteId,
+        String nombrePaciente,
+        String email,
+        String telefono,
+        int citasCanceladas
+) {}
@@ -0,0 +1,8 @@
+package com.concitamedica.domain.cita.dto;
+
+import java.util.List;
+
+public record PaginaCitasDTO(
+        List<CitaResponseDTO> citas,
+        String siguienteCursor
+) {}
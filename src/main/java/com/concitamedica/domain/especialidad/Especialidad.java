@@ -14,7 +14,8 @@ import lombok.*;
 public class Especialidad extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "especialidades_seq")
+    @SequenceGenerator(name = "especialidades_seq", sequenceName = "especialidades_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 100)
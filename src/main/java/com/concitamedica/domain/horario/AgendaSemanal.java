@@ -0,0 +1,78 @@
+package com.concitamedica.domain.horario;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bloques de horario de un médico agrupados por día y ordenados por hora de inicio.
+ * Como los bloques de un mismo día no pueden solaparse, el bloque que contiene una hora
+ * se encuentra con una búsqueda binaria sobre las horas de inicio.
+ */
+public final class AgendaSemanal {
+
+    private final Map<DiaSemana, List<Horario>> bloquesPorDia;
+
+    private AgendaSemanal(Map<DiaSemana, List<Horario>> bloquesPorDia) {
+        this.bloquesPorDia = bloquesPorDia;
+    }
+
+    /**
+     * Construye el índice y rechaza con {@link IllegalArgumentException} los bloques de un mismo día que se solapan.
+     */
+    public static AgendaSemanal de(Collection<Horario> horarios) {
+        Map<DiaSemana, List<Horario>> bloquesPorDia = new EnumMap<>(DiaSemana.class);
+        for (Horario horario : horarios) {
+            bloquesPorDia.computeIfAbsent(horario.getDiaSemana(), dia -> new ArrayList<>()).add(horario);
+        }
+
+        for (Map.Entry<DiaSemana, List<Horario>> dia : bloquesPorDia.entrySet()) {
+            List<Horario> bloques = dia.getValue();
+            bloques.sort(Comparator.comparing(Horario::getHoraInicio));
+
+            for (int i = 1; i < bloques.size(); i++) {
+                Horario anterior = bloques.get(i - 1);
+                Horario siguiente = bloques.get(i);
+                if (siguiente.getHoraInicio().isBefore(anterior.getHoraFin())) {
+                    throw new IllegalArgumentException("Los bloques de horario del " + dia.getKey() + " se solapan ("
+                            + anterior.getHoraInicio() + "-" + anterior.getHoraFin() + " y "
+                            + siguiente.getHoraInicio() + "-" + siguiente.getHoraFin() + ").");
+                }
+            }
+            dia.setValue(List.copyOf(bloques));
+        }
+
+        return new AgendaSemanal(bloquesPorDia);
+    }
+
+    public List<Horario> bloques(DiaSemana dia) {
+        return bloquesPorDia.getOrDefault(dia, List.of());
+    }
+
+    /**
+     * Bloque del día que contiene la hora (inicio inclusivo, fin exclusivo), o {@code null} si no hay ninguno.
+     */
+    public Horario bloqueQueContiene(DiaSemana dia, LocalTime hora) {
+        List<Horario> bloques = bloques(dia);
+        int bajo = 0;
+        int alto = bloques.size() - 1;
+        Horario candidato = null;
+
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            Horario bloque = bloques.get(medio);
+            if (bloque.getHoraInicio().isAfter(hora)) {
+                alto = medio - 1;
+            } else {
+                candidato = bloque;
+                bajo = medio + 1;
+            }
+        }
+
+        return candidato != null && hora.isBefore(candidato.getHoraFin()) ? candidato : null;
+    }
+}
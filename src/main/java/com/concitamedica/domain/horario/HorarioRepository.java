@@ -3,7 +3,7 @@ package com.concitamedica.domain.horario;
 import com.concitamedica.domain.medico.Medico;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -14,7 +14,9 @@ public interface HorarioRepository extends JpaRepository<Horario, Long> {
 
     List<Horario> findAllByMedicoId(Long medicoId);
 
-    Optional<Horario> findByMedicoIdAndDiaSemana(Long medicoId, DiaSemana diaSemana);
+    List<Horario> findAllByMedicoIdIn(Collection<Long> medicoIds);
+
+    List<Horario> findAllByMedicoIdAndDiaSemana(Long medicoId, DiaSemana diaSemana);
 
     void deleteAllByMedicoId(Long medicoId);
 }
\ No newline at end of file
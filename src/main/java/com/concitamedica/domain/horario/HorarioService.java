@@ -1,24 +1,34 @@
 package com.concitamedica.domain.horario;
 
+import com.concitamedica.domain.agenda.BloqueoAgendaMedico;
+import com.concitamedica.domain.agenda.IndiceDisponibilidad;
 import com.concitamedica.domain.horario.dto.CreacionHorarioDTO;
 import com.concitamedica.domain.medico.Medico;
 import com.concitamedica.domain.medico.MedicoRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.concitamedica.domain.horario.dto.HorarioResponseDTO;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
 public class HorarioService {
 
     private final HorarioRepository horarioRepository;
     private final MedicoRepository medicoRepository;
     private final com.concitamedica.domain.cita.CitaRepository citaRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final BloqueoAgendaMedico bloqueoAgendaMedico;
 
     @Transactional
     public Horario crearHorario(Long medicoId, CreacionHorarioDTO datos) {
@@ -36,7 +46,13 @@ public class HorarioService {
                 .horaFin(datos.horaFin())
                 .build();
 
-        return horarioRepository.save(nuevoHorario);
+        List<Horario> horarios = new ArrayList<>(horarioRepository.findAllByMedicoId(medicoId));
+        horarios.add(nuevoHorario);
+        AgendaSemanal.de(horarios);
+
+        Horario guardado = horarioRepository.save(nuevoHorario);
+        indiceDisponibilidad.invalidarMedico(medicoId);
+        return guardado;
     }
 
     @Transactional(readOnly = true)
@@ -61,6 +77,7 @@ public class HorarioService {
         }
 
         horarioRepository.delete(horario);
+        indiceDisponibilidad.invalidarMedico(medicoId);
     }
 
     @Transactional
@@ -86,64 +103,76 @@ public class HorarioService {
             nuevosHorarios.add(nuevoHorario);
         }
 
-        return horarioRepository.saveAll(nuevosHorarios);
+        List<Horario> horarios = new ArrayList<>(horarioRepository.findAllByMedicoId(medicoId));
+        horarios.addAll(nuevosHorarios);
+        AgendaSemanal.de(horarios);
+
+        List<Horario> guardados = horarioRepository.saveAll(nuevosHorarios);
+        indiceDisponibilidad.invalidarMedico(medicoId);
+        return guardados;
     }
 
+    /**
+     * Sustituye el horario del médico tocando solo los bloques que cambian. Si se elimina algún bloque,
+     * las citas futuras que quedan fuera del nuevo horario se cancelan en una sola sentencia.
+     */
     @Transactional
     public List<Horario> reemplazarHorarios(Long medicoId, List<CreacionHorarioDTO> horariosDTO) {
         Medico medico = medicoRepository.findById(medicoId)
                 .orElseThrow(() -> new RuntimeException("Médico no encontrado"));
 
-        horarioRepository.deleteAllByMedicoId(medicoId);
-        horarioRepository.flush();
-
-        List<Horario> nuevosHorarios = horariosDTO.stream()
-                .map(dto -> {
-                    if (dto.horaInicio().isAfter(dto.horaFin())) {
-                        throw new IllegalArgumentException("Error en horario " + dto.diaSemana() + ": Inicio posterior a fin.");
-                    }
-                    return Horario.builder()
-                            .medico(medico)
-                            .diaSemana(dto.diaSemana())
-                            .horaInicio(dto.horaInicio())
-                            .horaFin(dto.horaFin())
-                            .build();
-                })
-                .map(horarioRepository::save)
-                .toList();
-
-        validarYCancelarCitasConflictivas(medicoId, nuevosHorarios);
-
-        return nuevosHorarios;
-    }
+        // Evita que una reserva concurrente valide contra un bloque que se está retirando.
+        bloqueoAgendaMedico.bloquearHastaFinDeTransaccion(medicoId);
 
-    private void validarYCancelarCitasConflictivas(Long medicoId, List<Horario> nuevosHorarios) {
+        Map<Bloque, Horario> actuales = new HashMap<>();
+        for (Horario horario : horarioRepository.findAllByMedicoId(medicoId)) {
+            actuales.put(new Bloque(horario.getDiaSemana(), horario.getHoraInicio(), horario.getHoraFin()), horario);
+        }
 
-        List<com.concitamedica.domain.cita.Cita> citasFuturas =
-                citaRepository.findByMedicoIdAndFechaHoraInicioAfterAndEstado(
-                        medicoId, java.time.LocalDateTime.now(), com.concitamedica.domain.cita.EstadoCita.AGENDADA
-                );
+        List<Horario> horarios = new ArrayList<>();
+        List<Horario> nuevos = new ArrayList<>();
 
-        for (com.concitamedica.domain.cita.Cita cita : citasFuturas) {
-            boolean horarioValido = false;
+        for (CreacionHorarioDTO dto : horariosDTO) {
+            if (dto.horaInicio().isAfter(dto.horaFin())) {
+                throw new IllegalArgumentException("Error en horario " + dto.diaSemana() + ": Inicio posterior a fin.");
+            }
 
-            DiaSemana diaCita = DiaSemana.from(cita.getFechaHoraInicio().toLocalDate());
-            LocalTime horaCita = cita.getFechaHoraInicio().toLocalTime();
+            Horario existente = actuales.remove(new Bloque(dto.diaSemana(), dto.horaInicio(), dto.horaFin()));
+            if (existente != null) {
+                horarios.add(existente);
+                continue;
+            }
 
-            for (Horario horario : nuevosHorarios) {
-                if (horario.getDiaSemana() == diaCita) {
+            Horario nuevo = Horario.builder()
+                    .medico(medico)
+                    .diaSemana(dto.diaSemana())
+                    .horaInicio(dto.horaInicio())
+                    .horaFin(dto.horaFin())
+                    .build();
+            horarios.add(nuevo);
+            nuevos.add(nuevo);
+        }
 
-                    if (!horaCita.isBefore(horario.getHoraInicio()) && horaCita.isBefore(horario.getHoraFin())) {
-                        horarioValido = true;
-                        break;
-                    }
-                }
-            }
+        AgendaSemanal.de(horarios);
 
-            if (!horarioValido) {
-                cita.setEstado(com.concitamedica.domain.cita.EstadoCita.CANCELADA_ADMIN);
-                citaRepository.save(cita);
-            }
+        // Lo que queda en 'actuales' no está en el nuevo horario.
+        Collection<Horario> eliminados = actuales.values();
+        if (eliminados.isEmpty() && nuevos.isEmpty()) {
+            return horarios;
         }
+
+        horarioRepository.deleteAllInBatch(eliminados);
+        horarioRepository.saveAll(nuevos);
+
+        if (!eliminados.isEmpty()) {
+            horarioRepository.flush();
+            List<Long> canceladas = citaRepository.cancelarFueraDeHorario(medicoId, LocalDateTime.now());
+            log.info("Horario del médico {} reemplazado: {} citas canceladas por quedar fuera del horario", medicoId, canceladas.size());
+        }
+
+        indiceDisponibilidad.invalidarMedico(medicoId);
+        return horarios;
     }
-}
\ No newline at end of file
+
+    private record Bloque(DiaSemana diaSemana, LocalTime horaInicio, LocalTime horaFin) {}
+}
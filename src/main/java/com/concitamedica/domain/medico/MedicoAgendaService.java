@@ -10,7 +10,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,15 +27,6 @@ public class MedicoAgendaService {
         LocalDateTime inicioDelDia = fecha.atStartOfDay();
         LocalDateTime finDelDia = fecha.atTime(LocalTime.MAX);
 
-        return citaRepository.findAllByMedicoIdAndFechaHoraInicioBetween(medico.getId(), inicioDelDia, finDelDia)
-                .stream()
-                .map(cita -> new CitaMedicoResponseDTO(
-                        cita.getId(),
-                        cita.getPaciente().getNombre(),
-                        cita.getFechaHoraInicio(),
-                        cita.getFechaHoraFin(),
-                        cita.getEstado().name()
-                ))
-                .collect(Collectors.toList());
+        return citaRepository.findAgendaByMedicoIdAndFechaHoraInicioBetween(medico.getId(), inicioDelDia, finDelDia);
     }
 }
\ No newline at end of file
@@ -2,13 +2,30 @@ package com.concitamedica.domain.medico;
 
 import com.concitamedica.domain.usuario.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MedicoRepository extends JpaRepository<Medico, Long> {
     List<Medico> findAllByEspecialidadId(Long especialidadId);
+
+    @Query("SELECT m FROM Medico m JOIN FETCH m.usuario u JOIN FETCH m.especialidad e " +
+            "WHERE e.id = :especialidadId AND u.enabled = true")
+    List<Medico> findHabilitadosByEspecialidadId(@Param("especialidadId") Long especialidadId);
+    @Query("SELECT m FROM Medico m JOIN FETCH m.usuario JOIN FETCH m.especialidad WHERE m.id IN :ids")
+    List<Medico> findAllConDetalleByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT m FROM Medico m JOIN FETCH m.usuario u JOIN FETCH m.especialidad e " +
+            "WHERE :especialidadId IS NULL OR e.id = :especialidadId ORDER BY u.apellido, u.nombre")
+    List<Medico> findAllConDetalle(@Param("especialidadId") Long especialidadId);
+
     Optional<Medico> findByUsuario(Usuario usuario);
     Optional<Medico> findByUsuarioEmail(String email);
+
+    @Query("SELECT u.enabled FROM Medico m JOIN m.usuario u WHERE m.id = :medicoId")
+    Optional<Boolean> findUsuarioEnabledById(@Param("medicoId") Long medicoId);
 }
\ No newline at end of file
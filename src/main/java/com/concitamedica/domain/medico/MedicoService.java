@@ -1,8 +1,8 @@
 package com.concitamedica.domain.medico;
 
-import com.concitamedica.domain.cita.Cita;
+import com.concitamedica.domain.agenda.IndiceDisponibilidad;
+import com.concitamedica.domain.cita.CitaCancelada;
 import com.concitamedica.domain.cita.CitaRepository;
-import com.concitamedica.domain.cita.EstadoCita;
 import com.concitamedica.domain.especialidad.Especialidad;
 import com.concitamedica.domain.especialidad.EspecialidadRepository;
 import com.concitamedica.domain.medico.dto.ActualizacionMedicoDTO;
@@ -10,12 +10,15 @@ import com.concitamedica.domain.medico.dto.CreacionMedicoDTO;
 import com.concitamedica.domain.medico.dto.MedicoResponseDTO;
 import com.concitamedica.domain.rol.Rol;
 import com.concitamedica.domain.rol.RolRepository;
+import com.concitamedica.domain.usuario.EstadoUsuarioCambiado;
 import com.concitamedica.domain.usuario.Usuario;
 import com.concitamedica.domain.usuario.UsuarioRepository;
+import com.concitamedica.domain.usuario.UsuarioService;
 import com.concitamedica.domain.horario.HorarioRepository;
 import com.concitamedica.domain.horario.Horario;
 import com.concitamedica.domain.horario.DiaSemana;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,6 +40,9 @@ public class MedicoService {
     private final PasswordEncoder passwordEncoder;
     private final HorarioRepository horarioRepository;
     private final com.concitamedica.domain.cita.CitaRepository citaRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UsuarioService usuarioService;
 
     @Transactional
     public Medico crearMedico(CreacionMedicoDTO datos) {
@@ -82,15 +88,15 @@ public class MedicoService {
                 DiaSemana.LUNES, DiaSemana.MARTES, DiaSemana.MIERCOLES, DiaSemana.JUEVES, DiaSemana.VIERNES
         );
 
-        for (DiaSemana dia : diasLaborables) {
-            Horario horario = Horario.builder()
-                    .medico(medico)
-                    .diaSemana(dia)
-                    .horaInicio(LocalTime.of(8, 0))
-                    .horaFin(LocalTime.of(17, 0))
-                    .build();
-            horarioRepository.save(horario);
-        }
+        List<Horario> horarios = diasLaborables.stream()
+                .map(dia -> Horario.builder()
+                        .medico(medico)
+                        .diaSemana(dia)
+                        .horaInicio(LocalTime.of(8, 0))
+                        .horaFin(LocalTime.of(17, 0))
+                        .build())
+                .toList();
+        horarioRepository.saveAll(horarios);
     }
 
     @Transactional(readOnly = true)
@@ -101,6 +107,17 @@ public class MedicoService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Médicos para el reporte, con usuario y especialidad en la misma consulta. Sin especialidad, todos.
+     */
+    @Transactional(readOnly = true)
+    public List<MedicoResponseDTO> obtenerMedicosParaReporte(Long especialidadId) {
+        return medicoRepository.findAllConDetalle(especialidadId)
+                .stream()
+                .map(this::convertirAMedicoResponseDTO)
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public Optional<MedicoResponseDTO> obtenerMedicoPorId(Long id) {
         return medicoRepository.findById(id)
@@ -152,18 +169,15 @@ public class MedicoService {
         Usuario usuario = medico.getUsuario();
 
         usuario.setEnabled(false);
+        usuarioService.revocarSesiones(usuario);
         usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new EstadoUsuarioCambiado(usuario.getEmail(), false));
 
-        List<Cita> citasFuturas = citaRepository.findAllByMedicoIdAndFechaHoraInicioAfterOrderByFechaHoraInicioAsc(
-                id, LocalDateTime.now()
-        );
-
-        for (Cita cita : citasFuturas) {
-            if (cita.getEstado() == com.concitamedica.domain.cita.EstadoCita.AGENDADA) {
-                cita.setEstado(com.concitamedica.domain.cita.EstadoCita.CANCELADA_ADMIN);
-                citaRepository.save(cita);
-            }
+        for (CitaCancelada cita : citaRepository.cancelarAgendadasFuturasDeMedico(id, LocalDateTime.now())) {
+            indiceDisponibilidad.liberarCita(cita.getMedicoId(), cita.getFechaHoraInicio());
         }
+        // La agenda en memoria también guarda si el médico está habilitado.
+        indiceDisponibilidad.invalidarMedico(id);
     }
 
 
@@ -191,6 +205,8 @@ public class MedicoService {
                 .orElseThrow(() -> new RuntimeException("Médico no encontrado"));
         medico.getUsuario().setEnabled(true);
         usuarioRepository.save(medico.getUsuario());
+        eventPublisher.publishEvent(new EstadoUsuarioCambiado(medico.getUsuario().getEmail(), true));
+        indiceDisponibilidad.invalidarMedico(id);
     }
 
 }
\ No newline at end of file
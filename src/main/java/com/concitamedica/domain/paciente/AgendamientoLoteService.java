@@ -0,0 +1,264 @@
+package com.concitamedica.domain.paciente;
+
+import com.concitamedica.domain.agenda.BloqueoAgendaMedico;
+import com.concitamedica.domain.agenda.IndiceDisponibilidad;
+import com.concitamedica.domain.cita.Cita;
+import com.concitamedica.domain.cita.CitaRepository;
+import com.concitamedica.domain.cita.EstadoCita;
+import com.concitamedica.domain.cita.SolapamientoCitas;
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+import com.concitamedica.domain.horario.HorarioRepository;
+import com.concitamedica.domain.medico.Medico;
+import com.concitamedica.domain.medico.MedicoRepository;
+import com.concitamedica.domain.paciente.dto.AgendarCitaAdminDTO;
+import com.concitamedica.domain.paciente.dto.AgendarCitaDTO;
+import com.concitamedica.domain.paciente.dto.AgendarSerieDTO;
+import com.concitamedica.domain.paciente.dto.OcurrenciaSerieDTO;
+import com.concitamedica.domain.paciente.dto.ResultadoLoteCitaDTO;
+import com.concitamedica.domain.paciente.dto.SerieCitasDTO;
+import com.concitamedica.domain.usuario.Usuario;
+import com.concitamedica.domain.usuario.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.concitamedica.domain.rol.Roles.ROLE_PACIENTE;
+
+@Service
+@RequiredArgsConstructor
+public class AgendamientoLoteService {
+
+    private static final int MAX_CITAS_POR_LOTE = 50;
+    private static final int DURACION_CITA_MINUTOS = 30;
+
+    private final UsuarioRepository usuarioRepository;
+    private final MedicoRepository medicoRepository;
+    private final HorarioRepository horarioRepository;
+    private final CitaRepository citaRepository;
+    private final BloqueoAgendaMedico bloqueoAgendaMedico;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+
+    private record Solicitud(Long pacienteId, Long medicoId, LocalDateTime inicio) {
+        boolean completa() {
+            return pacienteId != null && medicoId != null && inicio != null;
+        }
+    }
+
+    @Transactional
+    public List<ResultadoLoteCitaDTO> agendarLote(List<AgendarCitaDTO> citas, String emailPaciente) {
+        Usuario paciente = usuarioRepository.findByEmail(emailPaciente)
+                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
+
+        List<Solicitud> solicitudes = citas.stream()
+                .map(cita -> new Solicitud(paciente.getId(), cita.medicoId(), cita.fechaHoraInicio()))
+                .toList();
+
+        return agendar(solicitudes, Map.of(paciente.getId(), paciente));
+    }
+
+    @Transactional
+    public List<ResultadoLoteCitaDTO> agendarLoteAdmin(List<AgendarCitaAdminDTO> citas) {
+        Set<Long> pacienteIds = citas.stream()
+                .map(AgendarCitaAdminDTO::pacienteId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, Usuario> pacientes = usuarioRepository.findAllById(pacienteIds).stream()
+                .filter(usuario -> usuario.getRol().getNombre().equals(ROLE_PACIENTE))
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+
+        List<Solicitud> solicitudes = citas.stream()
+                .map(cita -> new Solicitud(cita.pacienteId(), cita.medicoId(), cita.fechaHoraInicio()))
+                .toList();
+
+        return agendar(solicitudes, pacientes);
+    }
+
+    @Transactional
+    public SerieCitasDTO agendarSerie(AgendarSerieDTO datos, String emailPaciente) {
+        Usuario paciente = usuarioRepository.findByEmail(emailPaciente)
+                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
+
+        Long medicoId = datos.medicoId();
+        int intervalo = datos.intervalo() != null ? datos.intervalo() : 1;
+        List<LocalDateTime> ocurrencias = datos.frecuencia().expandir(datos.fechaHoraInicio(), intervalo, datos.repeticiones());
+
+        bloqueoAgendaMedico.bloquearHastaFinDeTransaccion(medicoId);
+
+        LocalDateTime ahora = LocalDateTime.now();
+        SnapshotAgenda snapshot = cargarSnapshot(ocurrencias, Set.of(medicoId), Set.of(paciente.getId()), ahora);
+        Medico medico = snapshot.medico(medicoId);
+        if (medico == null) {
+            throw new RuntimeException("Médico no encontrado");
+        }
+
+        UUID serieId = UUID.randomUUID();
+        List<OcurrenciaSerieDTO> resultados = new ArrayList<>(ocurrencias.size());
+        List<Cita> nuevasCitas = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+
+        // Las ocurrencias caen en días distintos, así que no se cruzan entre sí: no se registran en la foto
+        // para que la regla de una cita pendiente por especialidad solo aplique a las citas ya existentes.
+        for (int i = 0; i < ocurrencias.size(); i++) {
+            LocalDateTime inicio = ocurrencias.get(i);
+            LocalDateTime fin = inicio.plusMinutes(DURACION_CITA_MINUTOS);
+            String error = snapshot.validar(paciente.getId(), medicoId, inicio, fin, ahora);
+
+            resultados.add(new OcurrenciaSerieDTO(i, inicio, false, null, error));
+            if (error == null) {
+                nuevasCitas.add(Cita.builder()
+                        .paciente(paciente)
+                        .medico(medico)
+                        .fechaHoraInicio(inicio)
+                        .fechaHoraFin(fin)
+                        .estado(EstadoCita.AGENDADA)
+                        .serieId(serieId)
+                        .build());
+                indices.add(i);
+            }
+        }
+
+        List<Cita> guardadas = guardar(nuevasCitas);
+
+        for (int j = 0; j < guardadas.size(); j++) {
+            Cita cita = guardadas.get(j);
+            indiceDisponibilidad.registrarCita(medicoId, cita.getFechaHoraInicio());
+            resultados.set(indices.get(j), new OcurrenciaSerieDTO(indices.get(j), cita.getFechaHoraInicio(), true, cita.getId(), null));
+        }
+
+        return new SerieCitasDTO(
+                guardadas.isEmpty() ? null : serieId,
+                medicoId,
+                medico.getUsuario().getNombre() + " " + medico.getUsuario().getApellido(),
+                medico.getEspecialidad().getNombre(),
+                guardadas.size(),
+                resultados
+        );
+    }
+
+    private List<ResultadoLoteCitaDTO> agendar(List<Solicitud> solicitudes, Map<Long, Usuario> pacientes) {
+        if (solicitudes.isEmpty() || solicitudes.size() > MAX_CITAS_POR_LOTE) {
+            throw new IllegalArgumentException("El lote debe contener entre 1 y " + MAX_CITAS_POR_LOTE + " citas.");
+        }
+
+        List<Solicitud> completas = solicitudes.stream()
+                .filter(Solicitud::completa)
+                .toList();
+
+        Set<Long> medicoIds = completas.stream().map(Solicitud::medicoId).collect(Collectors.toSet());
+        bloqueoAgendaMedico.bloquearHastaFinDeTransaccion(medicoIds);
+
+        LocalDateTime ahora = LocalDateTime.now();
+        SnapshotAgenda snapshot = cargarSnapshot(
+                completas.stream().map(Solicitud::inicio).toList(), medicoIds, pacientes.keySet(), ahora);
+
+        List<ResultadoLoteCitaDTO> resultados = new ArrayList<>(solicitudes.size());
+        List<Cita> nuevasCitas = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+
+        for (int i = 0; i < solicitudes.size(); i++) {
+            Solicitud solicitud = solicitudes.get(i);
+            resultados.add(null);
+
+            if (!solicitud.completa()) {
+                resultados.set(i, ResultadoLoteCitaDTO.fallo(i, "Faltan datos obligatorios de la cita."));
+                continue;
+            }
+
+            Usuario paciente = pacientes.get(solicitud.pacienteId());
+            if (paciente == null) {
+                resultados.set(i, ResultadoLoteCitaDTO.fallo(i, "Paciente no encontrado"));
+                continue;
+            }
+
+            LocalDateTime fin = solicitud.inicio().plusMinutes(DURACION_CITA_MINUTOS);
+            String error = snapshot.validar(paciente.getId(), solicitud.medicoId(), solicitud.inicio(), fin, ahora);
+            if (error != null) {
+                resultados.set(i, ResultadoLoteCitaDTO.fallo(i, error));
+                continue;
+            }
+
+            snapshot.registrar(paciente.getId(), solicitud.medicoId(), solicitud.inicio(), fin);
+            nuevasCitas.add(Cita.builder()
+                    .paciente(paciente)
+                    .medico(snapshot.medico(solicitud.medicoId()))
+                    .fechaHoraInicio(solicitud.inicio())
+                    .fechaHoraFin(fin)
+                    .estado(EstadoCita.AGENDADA)
+                    .build());
+            indices.add(i);
+        }
+
+        List<Cita> guardadas = guardar(nuevasCitas);
+
+        for (int j = 0; j < guardadas.size(); j++) {
+            Cita cita = guardadas.get(j);
+            indiceDisponibilidad.registrarCita(cita.getMedico().getId(), cita.getFechaHoraInicio());
+            resultados.set(indices.get(j), ResultadoLoteCitaDTO.exito(indices.get(j), toDTO(cita)));
+        }
+
+        return resultados;
+    }
+
+    private SnapshotAgenda cargarSnapshot(List<LocalDateTime> inicios, Set<Long> medicoIds,
+                                          Set<Long> pacienteIds, LocalDateTime ahora) {
+        if (inicios.isEmpty()) {
+            return new SnapshotAgenda(List.of(), List.of(), List.of(), List.of());
+        }
+
+        LocalDateTime desde = inicios.stream().min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime hasta = inicios.stream().max(Comparator.naturalOrder()).orElseThrow()
+                .plusMinutes(DURACION_CITA_MINUTOS);
+
+        return new SnapshotAgenda(
+                medicoRepository.findAllConDetalleByIdIn(medicoIds),
+                horarioRepository.findAllByMedicoIdIn(medicoIds),
+                citaRepository.findAgendadasByMedicoIdInEntre(medicoIds, desde, hasta),
+                pacienteIds.isEmpty() ? List.of() : citaRepository.findAgendadasByPacienteIdInDesde(pacienteIds, ahora)
+        );
+    }
+
+    private List<Cita> guardar(List<Cita> citas) {
+        if (citas.isEmpty()) {
+            return citas;
+        }
+        try {
+            List<Cita> guardadas = citaRepository.saveAll(citas);
+            citaRepository.flush();
+            return guardadas;
+        } catch (DataIntegrityViolationException e) {
+            if (SolapamientoCitas.esViolacion(e)) {
+                throw new IllegalStateException("Uno de los horarios del lote ya no está disponible. Ninguna cita fue agendada.");
+            }
+            throw e;
+        }
+    }
+
+    private CitaResponseDTO toDTO(Cita cita) {
+        Medico medico = cita.getMedico();
+        Usuario paciente = cita.getPaciente();
+        return new CitaResponseDTO(
+                cita.getId(),
+                medico.getId(),
+                paciente.getId(),
+                medico.getUsuario().getNombre() + " " + medico.getUsuario().getApellido(),
+                paciente.getNombre() + " " + paciente.getApellido(),
+                medico.getEspecialidad().getNombre(),
+                cita.getFechaHoraInicio(),
+                cita.getFechaHoraFin(),
+                cita.getEstado().name()
+        );
+    }
+}
@@ -1,191 +1,135 @@
 package com.concitamedica.domain.paciente;
 
-import com.concitamedica.domain.cita.Cita;
+import com.concitamedica.domain.cita.CitaCancelada;
 import com.concitamedica.domain.cita.CitaRepository;
+import com.concitamedica.domain.cita.ResultadoAgendamiento;
+import com.concitamedica.domain.cita.SolapamientoCitas;
 import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+import com.concitamedica.domain.agenda.BloqueoAgendaMedico;
+import com.concitamedica.domain.agenda.IndiceDisponibilidad;
 import com.concitamedica.domain.horario.DiaSemana;
-import com.concitamedica.domain.horario.Horario;
-import com.concitamedica.domain.horario.HorarioRepository;
 import com.concitamedica.domain.paciente.dto.*;
 import com.concitamedica.domain.rol.RolRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.concitamedica.domain.cita.EstadoCita;
+import com.concitamedica.domain.usuario.EstadoUsuarioCambiado;
 import com.concitamedica.domain.usuario.Usuario;
 import com.concitamedica.domain.usuario.UsuarioRepository;
-import com.concitamedica.domain.medico.Medico;
+import com.concitamedica.domain.usuario.UsuarioService;
 
-import java.util.stream.Collectors;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Optional;
-import com.concitamedica.domain.medico.MedicoRepository;
 
 @Service
 @RequiredArgsConstructor
 public class PacienteService {
 
-    private final MedicoRepository medicoRepository;
-    private final HorarioRepository horarioRepository;
+    private static final int MAX_DIAS_DISPONIBILIDAD = 62;
+
     private final CitaRepository citaRepository;
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
     private final PasswordEncoder passwordEncoder;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final BloqueoAgendaMedico bloqueoAgendaMedico;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UsuarioService usuarioService;
 
     public List<DisponibilidadDTO> calcularDisponibilidad(Long medicoId, LocalDate fecha) {
-        if (!medicoRepository.existsById(medicoId)) {
-            throw new RuntimeException("Médico no encontrado");
-        }
-
-        Medico medico = medicoRepository.findById(medicoId)
-                .orElseThrow(() -> new RuntimeException("Médico no encontrado"));
-
-        if (!medico.getUsuario().isEnabled()) {
-            return new ArrayList<>();
-        }
-
-        DiaSemana dia = DiaSemana.from(fecha);
-        Optional<Horario> horarioLaboralOpt = horarioRepository.findByMedicoIdAndDiaSemana(medicoId, dia);
-
-        if (horarioLaboralOpt.isEmpty()) {
-            return new ArrayList<>();
-        }
-        Horario horarioLaboral = horarioLaboralOpt.get();
-
-        LocalDateTime inicioDelDia = fecha.atStartOfDay();
-        LocalDateTime finDelDia = fecha.atTime(LocalTime.MAX);
-        List<Cita> citasAgendadas = citaRepository.findAllByMedicoIdAndFechaHoraInicioBetween(medicoId, inicioDelDia, finDelDia);
-        List<LocalTime> horasOcupadas = citasAgendadas.stream()
-                .filter(cita -> cita.getEstado() == EstadoCita.AGENDADA)
-                .map(cita -> cita.getFechaHoraInicio().toLocalTime())
+        return indiceDisponibilidad.slotsLibres(medicoId, fecha).stream()
+                .map(DisponibilidadDTO::new)
                 .toList();
+    }
 
-        List<DisponibilidadDTO> slotsDisponibles = new ArrayList<>();
-        LocalTime horaActual = horarioLaboral.getHoraInicio();
-
-        while (horaActual.isBefore(horarioLaboral.getHoraFin())) {
-            if (!horasOcupadas.contains(horaActual)) {
-                slotsDisponibles.add(new DisponibilidadDTO(horaActual));
-            }
-            horaActual = horaActual.plusMinutes(30);
+    public List<DisponibilidadDiaDTO> calcularDisponibilidadRango(Long medicoId, LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la fecha inicial.");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= MAX_DIAS_DISPONIBILIDAD) {
+            throw new IllegalArgumentException("El rango de consulta no puede superar " + MAX_DIAS_DISPONIBILIDAD + " días.");
         }
 
-        return slotsDisponibles;
+        return indiceDisponibilidad.slotsLibres(medicoId, desde, hasta).entrySet().stream()
+                .map(dia -> new DisponibilidadDiaDTO(
+                        dia.getKey(),
+                        dia.getValue().stream().map(DisponibilidadDTO::new).toList()
+                ))
+                .toList();
     }
 
     @Transactional
     public CitaResponseDTO agendarCita(AgendarCitaDTO datosAgendamiento, String emailPaciente) {
-        Usuario paciente = usuarioRepository.findByEmail(emailPaciente)
-                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
-
-        Medico medico = medicoRepository.findById(datosAgendamiento.medicoId())
-                .orElseThrow(() -> new RuntimeException("Médico no encontrado"));
-
+        Long medicoId = datosAgendamiento.medicoId();
         LocalDateTime fechaInicioNueva = datosAgendamiento.fechaHoraInicio();
         LocalDateTime fechaFinNueva = fechaInicioNueva.plusMinutes(30);
+        LocalDateTime ahora = LocalDateTime.now();
 
-        if (fechaInicioNueva.isBefore(LocalDateTime.now())) {
+        if (fechaInicioNueva.isBefore(ahora)) {
             throw new IllegalStateException("No se pueden agendar citas en el pasado.");
         }
 
-        boolean tieneCitaPendiente = citaRepository.tieneCitaActivaConEspecialidad(
-                paciente.getId(),
-                medico.getEspecialidad().getId(),
-                LocalDateTime.now()
-        );
-
-        if (tieneCitaPendiente) {
-            throw new IllegalStateException("Ya tienes una cita programada de "
-                    + medico.getEspecialidad().getNombre() + " pendiente. "
-                    + "Debes asistir a esa cita o cancelarla antes de agendar una nueva.");
-        }
-
-        LocalDateTime inicioDia = fechaInicioNueva.toLocalDate().atStartOfDay();
-        LocalDateTime finDia = fechaInicioNueva.toLocalDate().atTime(LocalTime.MAX);
-
-        List<Cita> citasDelDia = citaRepository.findAllByPacienteIdAndFechaHoraInicioBetween(
-                paciente.getId(), inicioDia, finDia
-        );
-
-        for (Cita citaExistente : citasDelDia) {
-            if (citaExistente.getEstado() != EstadoCita.AGENDADA) continue;
-
-            boolean seSuperpone = fechaInicioNueva.isBefore(citaExistente.getFechaHoraFin()) &&
-                    fechaFinNueva.isAfter(citaExistente.getFechaHoraInicio());
-
-            if (seSuperpone) {
-                throw new IllegalStateException("Conflicto de horario: Ya tienes una cita agendada ("
-                        + citaExistente.getMedico().getUsuario().getNombre() + " - "
-                        + citaExistente.getFechaHoraInicio().toLocalTime() + ") que se cruza con este horario.");
+        bloqueoAgendaMedico.bloquearHastaFinDeTransaccion(medicoId);
+
+        ResultadoAgendamiento resultado;
+        try {
+            resultado = citaRepository.agendarSiDisponible(
+                    emailPaciente,
+                    medicoId,
+                    fechaInicioNueva,
+                    fechaFinNueva,
+                    DiaSemana.from(fechaInicioNueva.toLocalDate()).name(),
+                    ahora
+            );
+        } catch (DataIntegrityViolationException e) {
+            if (SolapamientoCitas.esViolacion(e)) {
+                throw new IllegalStateException("El horario seleccionado ya no está disponible en la agenda del médico.");
             }
+            throw e;
         }
 
-        List<DisponibilidadDTO> disponibilidad = calcularDisponibilidad(medico.getId(), fechaInicioNueva.toLocalDate());
-
-        boolean slotDisponible = disponibilidad.stream()
-                .anyMatch(slot -> slot.horaInicio().equals(fechaInicioNueva.toLocalTime()));
-
-        if (!slotDisponible) {
-            throw new IllegalStateException("El horario seleccionado ya no está disponible en la agenda del médico.");
+        if (resultado.getMotivo() != null) {
+            throw rechazoDeAgendamiento(resultado);
         }
 
-        Cita nuevaCita = Cita.builder()
-                .paciente(paciente)
-                .medico(medico)
-                .fechaHoraInicio(fechaInicioNueva)
-                .fechaHoraFin(fechaFinNueva)
-                .estado(EstadoCita.AGENDADA)
-                .build();
-
-        Cita citaGuardada = citaRepository.save(nuevaCita);
+        indiceDisponibilidad.registrarCita(medicoId, fechaInicioNueva);
 
         return new CitaResponseDTO(
-                citaGuardada.getId(),
-                medico.getId(),
-                paciente.getId(),
-                medico.getUsuario().getNombre() + " " + medico.getUsuario().getApellido(),
-                paciente.getNombre() + " " + paciente.getApellido(),
-                medico.getEspecialidad().getNombre(),
-                citaGuardada.getFechaHoraInicio(),
-                citaGuardada.getFechaHoraFin(),
-                citaGuardada.getEstado().name()
+                resultado.getId(),
+                medicoId,
+                resultado.getPacienteId(),
+                resultado.getNombreMedico(),
+                resultado.getNombrePaciente(),
+                resultado.getEspecialidad(),
+                fechaInicioNueva,
+                fechaFinNueva,
+                EstadoCita.AGENDADA.name()
         );
     }
 
+    private RuntimeException rechazoDeAgendamiento(ResultadoAgendamiento resultado) {
+        return switch (resultado.getMotivo()) {
+            case ResultadoAgendamiento.PACIENTE_NO_ENCONTRADO -> new RuntimeException("Paciente no encontrado");
+            case ResultadoAgendamiento.MEDICO_NO_ENCONTRADO -> new RuntimeException("Médico no encontrado");
+            case ResultadoAgendamiento.CITA_PENDIENTE_ESPECIALIDAD -> new IllegalStateException("Ya tienes una cita programada de "
+                    + resultado.getEspecialidad() + " pendiente. "
+                    + "Debes asistir a esa cita o cancelarla antes de agendar una nueva.");
+            case ResultadoAgendamiento.CONFLICTO_PACIENTE -> new IllegalStateException("Conflicto de horario: Ya tienes una cita agendada ("
+                    + resultado.getDetalle() + ") que se cruza con este horario.");
+            default -> new IllegalStateException("El horario seleccionado ya no está disponible en la agenda del médico.");
+        };
+    }
+
     @Transactional(readOnly = true)
     public List<CitaResponseDTO> obtenerProximasCitas(String emailPaciente) {
-        Usuario paciente = usuarioRepository.findByEmail(emailPaciente)
-                .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
-
-        return citaRepository.findAllByPacienteIdAndFechaHoraInicioAfterOrderByFechaHoraInicioAsc(
-                        paciente.getId(),
-                        LocalDateTime.now()
-                )
-                .stream()
-                .map(cita -> {
-                    String nombreCompletoMedico = cita.getMedico().getUsuario().getNombre() +
-                            " " +
-                            cita.getMedico().getUsuario().getApellido();
-
-                    return new CitaResponseDTO(
-                            cita.getId(),
-                            cita.getMedico().getId(),
-                            cita.getPaciente().getId(),
-                            nombreCompletoMedico,
-                            cita.getPaciente().getNombre() + " " + cita.getPaciente().getApellido(),
-                            cita.getMedico().getEspecialidad().getNombre(),
-                            cita.getFechaHoraInicio(),
-                            cita.getFechaHoraFin(),
-                            cita.getEstado().name()
-                    );
-                })
-                .collect(Collectors.toList());
+        return citaRepository.findProximasCitaResponseByPacienteEmail(emailPaciente, LocalDateTime.now());
     }
 
     @Transactional(readOnly = true)
@@ -259,17 +203,12 @@ public class PacienteService {
                 .orElseThrow(() -> new RuntimeException("Paciente no encontrado"));
 
         paciente.setEnabled(false);
+        usuarioService.revocarSesiones(paciente);
         usuarioRepository.save(paciente);
+        eventPublisher.publishEvent(new EstadoUsuarioCambiado(paciente.getEmail(), false));
 
-        List<Cita> citasFuturas = citaRepository.findAllByPacienteIdAndFechaHoraInicioBetween(
-                id, LocalDateTime.now(), LocalDateTime.now().plusYears(2)
-        );
-
-        for (Cita cita : citasFuturas) {
-            if (cita.getEstado() == EstadoCita.AGENDADA) {
-                cita.setEstado(EstadoCita.CANCELADA_ADMIN);
-                citaRepository.save(cita);
-            }
+        for (CitaCancelada cita : citaRepository.cancelarAgendadasFuturasDePaciente(id, LocalDateTime.now())) {
+            indiceDisponibilidad.liberarCita(cita.getMedicoId(), cita.getFechaHoraInicio());
         }
     }
 
@@ -281,5 +220,6 @@ public class PacienteService {
 
         paciente.setEnabled(true);
         usuarioRepository.save(paciente);
+        eventPublisher.publishEvent(new EstadoUsuarioCambiado(paciente.getEmail(), true));
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.concitamedica.domain.paciente;
+
+import com.concitamedica.domain.cita.IntervaloCita;
+import com.concitamedica.domain.horario.AgendaSemanal;
+import com.concitamedica.domain.horario.DiaSemana;
+import com.concitamedica.domain.horario.Horario;
+import com.concitamedica.domain.medico.Medico;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Foto en memoria de los médicos, horarios y citas que afectan a un grupo de reservas.
+ * Aplica las mismas reglas que {@code agendarCita} y registra cada reserva aceptada para que
+ * las siguientes del mismo grupo también la tengan en cuenta.
+ */
+final class SnapshotAgenda {
+
+    private static final long NANOS_SLOT = Duration.ofMinutes(30).toNanos();
+
+    private final Map<Long, Medico> medicos;
+    private final Map<Long, AgendaSemanal> horarios;
+    private final Map<Long, List<IntervaloCita>> citasPorMedico = new HashMap<>();
+    private final Map<Long, List<IntervaloCita>> citasPorPaciente = new HashMap<>();
+
+    SnapshotAgenda(Collection<Medico> medicos, Collection<Horario> horarios,
+                   Collection<IntervaloCita> citasMedicos, Collection<IntervaloCita> citasPacientes) {
+        this.medicos = medicos.stream().collect(Collectors.toMap(Medico::getId, Function.identity()));
+
+        this.horarios = horarios.stream()
+                .collect(Collectors.groupingBy(horario -> horario.getMedico().getId(),
+                        Collectors.collectingAndThen(Collectors.toList(), AgendaSemanal::de)));
+        for (IntervaloCita cita : citasMedicos) {
+            citasPorMedico.computeIfAbsent(cita.medicoId(), id -> new ArrayList<>()).add(cita);
+        }
+        for (IntervaloCita cita : citasPacientes) {
+            citasPorPaciente.computeIfAbsent(cita.pacienteId(), id -> new ArrayList<>()).add(cita);
+        }
+    }
+
+    Medico medico(Long medicoId) {
+        return medicos.get(medicoId);
+    }
+
+    /**
+     * Devuelve el motivo por el que la reserva no es posible, o {@code null} si lo es.
+     */
+    String validar(Long pacienteId, Long medicoId, LocalDateTime inicio, LocalDateTime fin, LocalDateTime ahora) {
+        if (inicio.isBefore(ahora)) {
+            return "No se pueden agendar citas en el pasado.";
+        }
+
+        Medico medico = medicos.get(medicoId);
+        if (medico == null) {
+            return "Médico no encontrado";
+        }
+
+        List<IntervaloCita> citasPaciente = citasPorPaciente.getOrDefault(pacienteId, List.of());
+        Long especialidadId = medico.getEspecialidad().getId();
+
+        boolean tieneCitaPendiente = citasPaciente.stream()
+                .anyMatch(cita -> cita.especialidadId().equals(especialidadId) && cita.inicio().isAfter(ahora));
+        if (tieneCitaPendiente) {
+            return "Ya tiene una cita programada de " + medico.getEspecialidad().getNombre() + " pendiente.";
+        }
+
+        for (IntervaloCita cita : citasPaciente) {
+            if (cita.seSuperpone(inicio, fin)) {
+                return "Conflicto de horario: ya existe una cita agendada (" + cita.inicio().toLocalTime()
+                        + ") que se cruza con este horario.";
+            }
+        }
+
+        if (!medico.getUsuario().isEnabled() || !cubiertoPorHorario(medicoId, inicio)) {
+            return "El horario seleccionado no está disponible en la agenda del médico.";
+        }
+
+        for (IntervaloCita cita : citasPorMedico.getOrDefault(medicoId, List.of())) {
+            if (cita.seSuperpone(inicio, fin)) {
+                return "El horario seleccionado ya no está disponible en la agenda del médico.";
+            }
+        }
+
+        return null;
+    }
+
+    void registrar(Long pacienteId, Long medicoId, LocalDateTime inicio, LocalDateTime fin) {
+        IntervaloCita cita = new IntervaloCita(pacienteId, medicoId, medicos.get(medicoId).getEspecialidad().getId(), inicio, fin);
+        citasPorMedico.computeIfAbsent(medicoId, id -> new ArrayList<>()).add(cita);
+        citasPorPaciente.computeIfAbsent(pacienteId, id -> new ArrayList<>()).add(cita);
+    }
+
+    private boolean cubiertoPorHorario(Long medicoId, LocalDateTime inicio) {
+        AgendaSemanal agenda = horarios.get(medicoId);
+        if (agenda == null) {
+            return false;
+        }
+
+        LocalTime hora = inicio.toLocalTime();
+        Horario bloque = agenda.bloqueQueContiene(DiaSemana.from(inicio.toLocalDate()), hora);
+        return bloque != null && Duration.between(bloque.getHoraInicio(), hora).toNanos() % NANOS_SLOT == 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.concitamedica.domain.paciente.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+public record AgendarCitaAdminDTO(
+        @NotNull Long pacienteId,
+        @NotNull Long medicoId,
+        @NotNull @Future LocalDateTime fechaHoraInicio
+) {}
@@ -0,0 +1,16 @@
+package com.concitamedica.domain.paciente.dto;
+
+import com.concitamedica.domain.cita.FrecuenciaSerie;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+public record AgendarSerieDTO(
+        @NotNull Long medicoId,
+        @NotNull @Future LocalDateTime fechaHoraInicio,
+        @NotNull FrecuenciaSerie frecuencia,
+        @Min(1) @Max(12) Integer intervalo,
+        @NotNull @Min(1) @Max(52) Integer repeticiones
+) {}
@@ -0,0 +1,9 @@
+package com.concitamedica.domain.paciente.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DisponibilidadDiaDTO(
+        LocalDate fecha,
+        List<DisponibilidadDTO> slots
+) {}
@@ -0,0 +1,11 @@
+package com.concitamedica.domain.paciente.dto;
+
+import java.time.LocalDateTime;
+
+public record OcurrenciaSerieDTO(
+        int indice,
+        LocalDateTime fechaHoraInicio,
+        boolean agendada,
+        Long citaId,
+        String error
+) {}
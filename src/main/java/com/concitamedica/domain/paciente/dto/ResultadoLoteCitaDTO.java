@@ -0,0 +1,18 @@
+package com.concitamedica.domain.paciente.dto;
+
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+
+public record ResultadoLoteCitaDTO(
+        int indice,
+        boolean agendada,
+        CitaResponseDTO cita,
+        String error
+) {
+    public static ResultadoLoteCitaDTO exito(int indice, CitaResponseDTO cita) {
+        return new ResultadoLoteCitaDTO(indice, true, cita, null);
+    }
+
+    public static ResultadoLoteCitaDTO fallo(int indice, String error) {
+        return new ResultadoLoteCitaDTO(indice, false, null, error);
+    }
+}
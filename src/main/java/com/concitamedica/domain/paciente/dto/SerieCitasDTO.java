@@ -0,0 +1,13 @@
+package com.concitamedica.domain.paciente.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record SerieCitasDTO(
+        UUID serieId,
+        Long medicoId,
+        String nombreMedico,
+        String especialidad,
+        int agendadas,
+        List<OcurrenciaSerieDTO> ocurrencias
+) {}
@@ -0,0 +1,20 @@
+package com.concitamedica.domain.reporte;
+
+/**
+ * La cola de reportes está llena; el cliente debe reintentar pasados unos segundos.
+ */
+public class ColaReportesLlenaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long reintentarEnSegundos;
+
+    public ColaReportesLlenaException(long reintentarEnSegundos) {
+        super("Hay demasiados reportes en cola. Intente de nuevo en unos minutos.");
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
@@ -0,0 +1,45 @@
+package com.concitamedica.domain.reporte;
+
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compila las plantillas .jrxml a .jasper durante el build de Maven (fase process-classes),
+ * para que la aplicación no tenga que compilarlas en tiempo de ejecución.
+ *
+ * Uso: {@code CompiladorPlantillas <directorio .jrxml> <directorio de salida>}
+ */
+@Slf4j
+public final class CompiladorPlantillas {
+
+    private CompiladorPlantillas() {
+    }
+
+    public static void main(String[] args) throws IOException, JRException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Uso: CompiladorPlantillas <directorio .jrxml> <directorio de salida>");
+        }
+
+        Path origen = Path.of(args[0]);
+        Path destino = Path.of(args[1]);
+        Files.createDirectories(destino);
+
+        List<Path> plantillas;
+        try (Stream<Path> archivos = Files.list(origen)) {
+            plantillas = archivos.filter(archivo -> archivo.toString().endsWith(".jrxml")).sorted().toList();
+        }
+
+        for (Path plantilla : plantillas) {
+            String nombre = plantilla.getFileName().toString().replace(".jrxml", ".jasper");
+            JasperCompileManager.compileReportToFile(plantilla.toString(), destino.resolve(nombre).toString());
+            log.info("Plantilla compilada: {}", nombre);
+        }
+    }
+}
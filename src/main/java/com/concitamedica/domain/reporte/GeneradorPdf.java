@@ -0,0 +1,78 @@
+package com.concitamedica.domain.reporte;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Llena un reporte y lo exporta a PDF directamente sobre la salida indicada. Las páginas llenadas
+ * se guardan en un archivo de intercambio en disco cuando superan {@code paginasEnMemoria}, de modo
+ * que la memoria usada depende del tamaño de página y no del número de filas.
+ */
+@Component
+class GeneradorPdf {
+
+    private static final int TAMANO_BLOQUE_SWAP = 4096;
+    private static final int BLOQUES_CRECIMIENTO_SWAP = 256;
+
+    private final String directorioSwap;
+    private final int paginasEnMemoria;
+
+    GeneradorPdf(@Value("${reportes.virtualizador.directorio:${java.io.tmpdir}}") String directorioSwap,
+                 @Value("${reportes.virtualizador.paginas-en-memoria:20}") int paginasEnMemoria) {
+        this.directorioSwap = directorioSwap;
+        this.paginasEnMemoria = paginasEnMemoria;
+    }
+
+    /**
+     * Llena el reporte. Si el origen de datos lee de la BDD, debe llamarse dentro de la transacción que lo mantiene abierto.
+     */
+    JasperPrint llenar(JasperReport reporte, Map<String, Object> parametros, JRDataSource datos,
+                       JRSwapFileVirtualizer virtualizador) throws JRException {
+        Map<String, Object> parametrosLlenado = new HashMap<>(parametros);
+        parametrosLlenado.put(JRParameter.REPORT_VIRTUALIZER, virtualizador);
+        JasperPrint impresion = JasperFillManager.fillReport(reporte, parametrosLlenado, datos);
+        // Las páginas ya no cambian: el virtualizador puede descartar las copias en memoria al paginar.
+        virtualizador.setReadOnly(true);
+        return impresion;
+    }
+
+    void exportar(JasperPrint impresion, OutputStream salida) throws JRException {
+        JRPdfExporter exportador = new JRPdfExporter();
+        exportador.setExporterInput(new SimpleExporterInput(impresion));
+        exportador.setExporterOutput(new SimpleOutputStreamExporterOutput(salida));
+        exportador.exportReport();
+    }
+
+    JRSwapFileVirtualizer nuevoVirtualizador() {
+        JRSwapFile swap = new JRSwapFile(directorioSwap, TAMANO_BLOQUE_SWAP, BLOQUES_CRECIMIENTO_SWAP);
+        return new JRSwapFileVirtualizer(paginasEnMemoria, swap, true);
+    }
+
+    /**
+     * Llena y exporta en un solo paso, liberando el archivo de intercambio al terminar.
+     */
+    void generar(JasperReport reporte, Map<String, Object> parametros, JRDataSource datos, OutputStream salida)
+            throws JRException {
+        JRSwapFileVirtualizer virtualizador = nuevoVirtualizador();
+        try {
+            exportar(llenar(reporte, parametros, datos, virtualizador), salida);
+        } finally {
+            virtualizador.cleanup();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.concitamedica.domain.reporte;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.data.JRAbstractBeanDataSource;
+
+import java.util.Iterator;
+
+/**
+ * Origen de datos Jasper que recorre un iterador una sola vez, sin copiar las filas a una colección.
+ * Los campos se resuelven por propiedad del bean, igual que en {@code JRBeanCollectionDataSource}.
+ */
+class IteradorDataSource<T> extends JRAbstractBeanDataSource {
+
+    private final Iterator<T> iterador;
+    private T actual;
+
+    IteradorDataSource(Iterator<T> iterador) {
+        super(true);
+        this.iterador = iterador;
+    }
+
+    @Override
+    public boolean next() {
+        if (!iterador.hasNext()) {
+            actual = null;
+            return false;
+        }
+        actual = iterador.next();
+        return true;
+    }
+
+    @Override
+    public Object getFieldValue(JRField campo) throws JRException {
+        return getFieldValue(actual, campo);
+    }
+
+    @Override
+    public void moveFirst() throws JRException {
+        throw new JRException("El origen de datos por iterador no se puede recorrer de nuevo.");
+    }
+}
@@ -0,0 +1,60 @@
+package com.concitamedica.domain.reporte;
+
+import com.concitamedica.domain.cita.EstadoCita;
+import com.concitamedica.domain.cita.FiltroCitas;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtros opcionales de los reportes; los campos nulos no filtran. Se traducen a condiciones SQL,
+ * de modo que el costo del reporte depende del rango pedido y no de todo el histórico.
+ */
+public record ParametrosReporte(
+        LocalDateTime desde,
+        LocalDateTime hasta,
+        Long especialidadId,
+        Long medicoId,
+        EstadoCita estado
+) {
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    public ParametrosReporte {
+        if (desde != null && hasta != null && !hasta.isAfter(desde)) {
+            throw new IllegalArgumentException("La fecha final del reporte debe ser posterior a la inicial.");
+        }
+    }
+
+    public static ParametrosReporte sinFiltros() {
+        return new ParametrosReporte(null, null, null, null, null);
+    }
+
+    FiltroCitas filtroCitas() {
+        return new FiltroCitas(estado, medicoId, null, especialidadId, desde, hasta);
+    }
+
+    /**
+     * Resumen legible de los filtros aplicados, para la cabecera del reporte.
+     */
+    String descripcion() {
+        List<String> partes = new ArrayList<>();
+        if (desde != null) {
+            partes.add("Desde " + desde.format(FORMATO_FECHA));
+        }
+        if (hasta != null) {
+            partes.add("Hasta " + hasta.format(FORMATO_FECHA));
+        }
+        if (especialidadId != null) {
+            partes.add("Especialidad #" + especialidadId);
+        }
+        if (medicoId != null) {
+            partes.add("Médico #" + medicoId);
+        }
+        if (estado != null) {
+            partes.add("Estado " + estado.name());
+        }
+        return partes.isEmpty() ? "Todas las citas" : String.join(" · ", partes);
+    }
+}
@@ -0,0 +1,108 @@
+package com.concitamedica.domain.reporte;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plantillas Jasper ya compiladas, cargadas una sola vez al arrancar. Se usan los .jasper generados
+ * en el build; si faltan (por ejemplo al ejecutar desde el IDE) se compila el .jrxml una vez.
+ *
+ * Con {@code reportes.recarga-en-caliente=true} se vuelve a compilar el .jrxml cuando cambia su
+ * fecha de modificación, para editar plantillas sin reiniciar.
+ */
+@Component
+@Slf4j
+public class PlantillasReporte {
+
+    public static final String MEDICOS = "medicos_report";
+    public static final String PACIENTES = "pacientes_report";
+    public static final String CITAS = "citas_report";
+
+    private static final List<String> PLANTILLAS = List.of(MEDICOS, PACIENTES, CITAS);
+
+    private record Plantilla(JasperReport reporte, long modificado) {}
+
+    private final Map<String, Plantilla> plantillas = new ConcurrentHashMap<>();
+    private final boolean recargaEnCaliente;
+
+    public PlantillasReporte(@Value("${reportes.recarga-en-caliente:false}") boolean recargaEnCaliente) {
+        this.recargaEnCaliente = recargaEnCaliente;
+    }
+
+    @PostConstruct
+    void cargar() throws JRException {
+        for (String nombre : PLANTILLAS) {
+            plantillas.put(nombre, recargaEnCaliente ? compilar(nombre) : cargarCompilada(nombre));
+        }
+    }
+
+    public JasperReport obtener(String nombre) throws JRException {
+        Plantilla plantilla = plantillas.get(nombre);
+        if (plantilla == null) {
+            throw new JRException("No se encontró la plantilla del reporte: " + nombre);
+        }
+
+        if (recargaEnCaliente && modificacionFuente(nombre) != plantilla.modificado()) {
+            plantilla = compilar(nombre);
+            plantillas.put(nombre, plantilla);
+            log.info("Plantilla {} recompilada", nombre);
+        }
+        return plantilla.reporte();
+    }
+
+    private Plantilla cargarCompilada(String nombre) throws JRException {
+        try (InputStream compilada = getClass().getResourceAsStream("/reports/" + nombre + ".jasper")) {
+            if (compilada != null) {
+                return new Plantilla((JasperReport) JRLoader.loadObject(compilada), 0L);
+            }
+        } catch (IOException e) {
+            throw new JRException("No se pudo leer la plantilla compilada: " + nombre, e);
+        }
+
+        log.warn("No existe /reports/{}.jasper; se compila el .jrxml al arrancar", nombre);
+        return compilar(nombre);
+    }
+
+    private Plantilla compilar(String nombre) throws JRException {
+        long modificado = modificacionFuente(nombre);
+        try (InputStream fuente = getClass().getResourceAsStream("/reports/" + nombre + ".jrxml")) {
+            if (fuente == null) {
+                throw new JRException("No se encontró el archivo del reporte: /reports/" + nombre + ".jrxml");
+            }
+            return new Plantilla(JasperCompileManager.compileReport(fuente), modificado);
+        } catch (IOException e) {
+            throw new JRException("No se pudo leer la plantilla: " + nombre, e);
+        }
+    }
+
+    /**
+     * Fecha de modificación del .jrxml si está en el sistema de archivos; 0 si está dentro de un jar.
+     */
+    private long modificacionFuente(String nombre) {
+        URL url = getClass().getResource("/reports/" + nombre + ".jrxml");
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return 0L;
+        }
+        try {
+            return Files.getLastModifiedTime(Path.of(url.toURI())).toMillis();
+        } catch (IOException | URISyntaxException e) {
+            return 0L;
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.concitamedica.domain.reporte;
 
+import com.concitamedica.domain.cita.FiltroCitas;
+import com.concitamedica.domain.cita.dto.CitaResponseDTO;
 import com.concitamedica.domain.medico.MedicoService;
 import com.concitamedica.domain.medico.dto.MedicoResponseDTO;
 import com.concitamedica.domain.paciente.PacienteService;
+import com.concitamedica.domain.reporte.dto.ConteoReporteDTO;
 import lombok.RequiredArgsConstructor;
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,63 +28,88 @@ public class ReporteService {
     private final MedicoService medicoService;
     private final PacienteService pacienteService;
     private final com.concitamedica.domain.cita.CitaRepository citaRepository;
+    private final PlantillasReporte plantillasReporte;
+    private final GeneradorPdf generadorPdf;
+    private final PlatformTransactionManager transactionManager;
+
+    public void generar(TipoReporte tipo, ParametrosReporte parametros, OutputStream salida) throws JRException {
+        switch (tipo) {
+            case MEDICOS -> generarReporteMedicos(parametros, salida);
+            case PACIENTES -> generarReportePacientes(salida);
+            case CITAS -> generarReporteCitas(parametros, salida);
+        }
+    }
 
-    public byte[] generarReporteMedicos() throws JRException {
-
-        List<MedicoResponseDTO> medicos = medicoService.obtenerTodosLosMedicos();
-
-        java.io.InputStream inputStream = this.getClass().getResourceAsStream("/reports/medicos_report.jrxml");
+    public void generarReporteMedicos(ParametrosReporte parametros, OutputStream salida) throws JRException {
 
-        if (inputStream == null) {
-            throw new JRException("No se encontró el archivo del reporte: /reports/medicos_report.jrxml");
-        }
+        List<MedicoResponseDTO> medicos = medicoService.obtenerMedicosParaReporte(parametros.especialidadId());
 
-        JasperReport jasperReport = JasperCompileManager.compileReport(inputStream);
+        JasperReport jasperReport = plantillasReporte.obtener(PlantillasReporte.MEDICOS);
 
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(medicos);
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("createdBy", "ConCitaMedica Admin");
 
-        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-
-        return JasperExportManager.exportReportToPdf(jasperPrint);
+        generadorPdf.generar(jasperReport, parameters, dataSource, salida);
     }
 
-    public byte[] generarReportePacientes() throws JRException {
+    public void generarReportePacientes(OutputStream salida) throws JRException {
         List<com.concitamedica.domain.paciente.dto.PacienteResponseDTO> pacientes = pacienteService.obtenerTodosLosPacientes();
 
-        java.io.InputStream inputStream = this.getClass().getResourceAsStream("/reports/pacientes_report.jrxml");
-        JasperReport jasperReport = JasperCompileManager.compileReport(inputStream);
+        JasperReport jasperReport = plantillasReporte.obtener(PlantillasReporte.PACIENTES);
 
         JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(pacientes);
         Map<String, Object> parameters = new HashMap<>();
 
-        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-        return JasperExportManager.exportReportToPdf(jasperPrint);
+        generadorPdf.generar(jasperReport, parameters, dataSource, salida);
     }
 
-    public byte[] generarReporteCitas() throws JRException {
-
-        List<com.concitamedica.domain.cita.dto.CitaResponseDTO> citasDTO = citaRepository.findAllByOrderByFechaHoraInicioDesc().stream()
-                .map(cita -> new com.concitamedica.domain.cita.dto.CitaResponseDTO(
-                        cita.getId(),
-                        cita.getMedico().getId(),
-                        cita.getPaciente().getId(),
-                        cita.getMedico().getUsuario().getNombre() + " " + cita.getMedico().getUsuario().getApellido(),
-                        cita.getPaciente().getNombre() + " " + cita.getPaciente().getApellido(),
-                        cita.getMedico().getEspecialidad().getNombre(),
-                        cita.getFechaHoraInicio(),
-                        cita.getFechaHoraFin(),
-                        cita.getEstado().name()
-                )).toList();
-
-        java.io.InputStream inputStream = this.getClass().getResourceAsStream("/reports/citas_report.jrxml");
-        JasperReport jasperReport = JasperCompileManager.compileReport(inputStream);
-
-        JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(citasDTO);
-        Map<String, Object> parameters = new HashMap<>();
+    /**
+     * Las citas se leen de la BDD mientras Jasper llena el reporte, sin cargarlas todas en memoria.
+     * El llenado ocurre dentro de una transacción de solo lectura que se cierra antes de exportar el PDF.
+     * Los totales por estado y por especialidad se agrupan en la BDD y llegan a la plantilla como parámetros.
+     */
+    public void generarReporteCitas(ParametrosReporte parametros, OutputStream salida) throws JRException {
+        JasperReport jasperReport = plantillasReporte.obtener(PlantillasReporte.CITAS);
+        FiltroCitas filtro = parametros.filtroCitas();
+
+        List<ConteoReporteDTO> conteoEstados = new ArrayList<>();
+        citaRepository.contarPorEstado(filtro)
+                .forEach((estado, cantidad) -> conteoEstados.add(new ConteoReporteDTO(estado.name(), cantidad)));
+        List<ConteoReporteDTO> conteoEspecialidades = new ArrayList<>();
+        citaRepository.contarPorEspecialidad(filtro)
+                .forEach((especialidad, cantidad) -> conteoEspecialidades.add(new ConteoReporteDTO(especialidad, cantidad)));
 
-        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-        return JasperExportManager.exportReportToPdf(jasperPrint);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("FILTROS", parametros.descripcion());
+        parameters.put("TOTAL_CITAS", conteoEstados.stream().mapToLong(ConteoReporteDTO::cantidad).sum());
+        parameters.put("CONTEO_ESTADOS", conteoEstados);
+        parameters.put("CONTEO_ESPECIALIDADES", conteoEspecialidades);
+
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(true);
+
+        JRSwapFileVirtualizer virtualizador = generadorPdf.nuevoVirtualizador();
+        try {
+            JasperPrint jasperPrint;
+            try {
+                jasperPrint = transaccion.execute(estado -> {
+                    try (Stream<CitaResponseDTO> citas = citaRepository.streamParaReporte(filtro)) {
+                        return generadorPdf.llenar(jasperReport, parameters, new IteradorDataSource<>(citas.iterator()), virtualizador);
+                    } catch (JRException e) {
+                        throw new JRRuntimeException(e);
+                    }
+                });
+            } catch (JRRuntimeException e) {
+                if (e.getCause() instanceof JRException causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+
+            generadorPdf.exportar(jasperPrint, salida);
+        } finally {
+            virtualizador.cleanup();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.concitamedica.domain.reporte;
+
+import java.util.Locale;
+
+public enum TipoReporte {
+    MEDICOS("medicos_reporte.pdf"),
+    PACIENTES("pacientes_reporte.pdf"),
+    CITAS("citas_reporte.pdf");
+
+    private final String nombreArchivo;
+
+    TipoReporte(String nombreArchivo) {
+        this.nombreArchivo = nombreArchivo;
+    }
+
+    public String getNombreArchivo() {
+        return nombreArchivo;
+    }
+
+    public static TipoReporte desde(String valor) {
+        try {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de reporte no soportado: " + valor);
+        }
+    }
+}
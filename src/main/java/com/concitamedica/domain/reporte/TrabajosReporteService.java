@@ -0,0 +1,237 @@
+package com.concitamedica.domain.reporte;
+
+import com.concitamedica.domain.reporte.dto.EstadoReporteDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Genera los reportes PDF en un pool de hilos propio y acotado, fuera de los hilos HTTP.
+ * Cada PDF terminado se guarda en el directorio de spool y se borra al vencer su retención.
+ */
+@Service
+@Slf4j
+public class TrabajosReporteService {
+
+    // Solo se tocan los archivos que crea este servicio: <uuid>.pdf y <uuid>.pdf.tmp.
+    private static final Pattern ARCHIVO_PROPIO = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.pdf(\\.tmp)?");
+    private static final Duration INTERVALO_PURGA = Duration.ofMinutes(5);
+    private static final long REINTENTAR_EN_SEGUNDOS = 30;
+
+    private final ReporteService reporteService;
+    private final Path directorio;
+    private final Duration retencion;
+    private final Duration esperaSincrona;
+    private final ThreadPoolExecutor ejecutor;
+    private final Map<UUID, TrabajoReporte> trabajos = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService purga = Executors.newSingleThreadScheduledExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "reportes-purga");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private enum EstadoTrabajo { EN_COLA, EN_CURSO, COMPLETADO, FALLIDO }
+
+    public TrabajosReporteService(ReporteService reporteService,
+                                  @Value("${reportes.trabajos.directorio:${java.io.tmpdir}/concitamedica-reportes}") String directorio,
+                                  @Value("${reportes.trabajos.hilos:2}") int hilos,
+                                  @Value("${reportes.trabajos.cola:20}") int capacidadCola,
+                                  @Value("${reportes.trabajos.retencion-minutos:60}") long retencionMinutos,
+                                  @Value("${reportes.trabajos.espera-sincrona-segundos:30}") long esperaSincronaSegundos) throws IOException {
+        this.reporteService = reporteService;
+        this.directorio = Files.createDirectories(Path.of(directorio));
+        this.retencion = Duration.ofMinutes(retencionMinutos);
+        this.esperaSincrona = Duration.ofSeconds(esperaSincronaSegundos);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+                    Thread hilo = new Thread(tarea, "reportes-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+
+        // Los trabajos solo viven en memoria: los archivos de una ejecución anterior ya no se pueden descargar.
+        try (Stream<Path> archivos = Files.list(this.directorio)) {
+            archivos.filter(archivo -> ARCHIVO_PROPIO.matcher(archivo.getFileName().toString()).matches())
+                    .forEach(this::borrar);
+        }
+
+        // La retención se cumple aunque no lleguen más peticiones de reportes.
+        long intervalo = INTERVALO_PURGA.toMillis();
+        purga.scheduleWithFixedDelay(this::purgarTrabajos, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    public EstadoReporteDTO solicitar(TipoReporte tipo, ParametrosReporte parametros) {
+        return encolar(tipo, parametros).estado();
+    }
+
+    /**
+     * Encola el reporte en el mismo pool que {@link #solicitar}. El resultado se completa al terminar el
+     * trabajo o, como mucho, a los {@code reportes.trabajos.espera-sincrona-segundos} con el estado en curso;
+     * nadie queda bloqueado esperándolo.
+     */
+    public CompletableFuture<EstadoReporteDTO> solicitarYEsperar(TipoReporte tipo, ParametrosReporte parametros) {
+        TrabajoReporte trabajo = encolar(tipo, parametros);
+        return trabajo.terminado
+                .thenApply(terminado -> trabajo.estado())
+                .orTimeout(esperaSincrona.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(timeout -> trabajo.estado());
+    }
+
+    private TrabajoReporte encolar(TipoReporte tipo, ParametrosReporte parametros) {
+        purgarTrabajos();
+
+        TrabajoReporte trabajo = new TrabajoReporte(UUID.randomUUID(), tipo, parametros, LocalDateTime.now());
+        trabajos.put(trabajo.id, trabajo);
+        try {
+            ejecutor.execute(() -> ejecutar(trabajo));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.id);
+            throw new ColaReportesLlenaException(REINTENTAR_EN_SEGUNDOS);
+        }
+        return trabajo;
+    }
+
+    public EstadoReporteDTO consultar(UUID id) {
+        return buscar(id).estado();
+    }
+
+    /**
+     * Devuelve el PDF terminado. Se sirve como recurso para que Spring atienda las peticiones con Range.
+     */
+    public FileSystemResource obtenerArchivo(UUID id) {
+        TrabajoReporte trabajo = buscar(id);
+        if (trabajo.estado != EstadoTrabajo.COMPLETADO) {
+            throw new IllegalStateException("El reporte todavía no está disponible (estado: " + trabajo.estado + ").");
+        }
+        return new FileSystemResource(trabajo.archivo);
+    }
+
+    public TipoReporte tipo(UUID id) {
+        return buscar(id).tipo;
+    }
+
+    private TrabajoReporte buscar(UUID id) {
+        purgarTrabajos();
+        TrabajoReporte trabajo = trabajos.get(id);
+        if (trabajo == null) {
+            throw new RuntimeException("Trabajo de reporte no encontrado");
+        }
+        return trabajo;
+    }
+
+    private void ejecutar(TrabajoReporte trabajo) {
+        trabajo.iniciado = LocalDateTime.now();
+        trabajo.estado = EstadoTrabajo.EN_CURSO;
+
+        Path temporal = directorio.resolve(trabajo.id + ".pdf.tmp");
+        Path archivo = directorio.resolve(trabajo.id + ".pdf");
+        try {
+            try (OutputStream salida = Files.newOutputStream(temporal)) {
+                reporteService.generar(trabajo.tipo, trabajo.parametros, salida);
+            }
+            // El archivo solo aparece con su nombre final cuando está completo.
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+
+            trabajo.archivo = archivo;
+            trabajo.tamanoBytes = Files.size(archivo);
+            trabajo.terminar(EstadoTrabajo.COMPLETADO, null);
+            log.info("Reporte {} de {} generado ({} bytes)", trabajo.id, trabajo.tipo, trabajo.tamanoBytes);
+        } catch (Exception e) {
+            log.error("Error generando el reporte {} de {}", trabajo.id, trabajo.tipo, e);
+            borrar(temporal);
+            trabajo.terminar(EstadoTrabajo.FALLIDO, e.getMessage());
+        }
+    }
+
+    private void purgarTrabajos() {
+        try {
+            LocalDateTime limite = LocalDateTime.now().minus(retencion);
+            trabajos.values().removeIf(trabajo -> {
+                if (trabajo.finalizado == null || !trabajo.finalizado.isBefore(limite)) {
+                    return false;
+                }
+                if (trabajo.archivo != null) {
+                    borrar(trabajo.archivo);
+                }
+                return true;
+            });
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron purgar los trabajos de reporte: {}", e.getMessage());
+        }
+    }
+
+    private void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo de reporte {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        purga.shutdownNow();
+        ejecutor.shutdownNow();
+    }
+
+    private static final class TrabajoReporte {
+
+        private final UUID id;
+        private final TipoReporte tipo;
+        private final ParametrosReporte parametros;
+        private final LocalDateTime solicitado;
+
+        private final CompletableFuture<Void> terminado = new CompletableFuture<>();
+        private volatile EstadoTrabajo estado = EstadoTrabajo.EN_COLA;
+        private volatile LocalDateTime iniciado;
+        private volatile LocalDateTime finalizado;
+        private volatile Path archivo;
+        private volatile Long tamanoBytes;
+        private volatile String error;
+
+        private TrabajoReporte(UUID id, TipoReporte tipo, ParametrosReporte parametros, LocalDateTime solicitado) {
+            this.id = id;
+            this.tipo = tipo;
+            this.parametros = parametros;
+            this.solicitado = solicitado;
+        }
+
+        private void terminar(EstadoTrabajo estadoFinal, String error) {
+            this.error = error;
+            this.finalizado = LocalDateTime.now();
+            this.estado = estadoFinal;
+            terminado.complete(null);
+        }
+
+        private EstadoReporteDTO estado() {
+            return new EstadoReporteDTO(id, tipo.name(), estado.name(), solicitado, iniciado, finalizado, tamanoBytes, error);
+        }
+    }
+}
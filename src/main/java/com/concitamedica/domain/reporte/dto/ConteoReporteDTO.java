@@ -0,0 +1,13 @@
+package com.concitamedica.domain.reporte.dto;
+
+public record ConteoReporteDTO(
+        String nombre,
+        Long cantidad
+) {
+    public ConteoReporteDTO { }
+
+    // Getters compatibles con Jasperreports
+
+    public String getNombre() { return nombre; }
+    public Long getCantidad() { return cantidad; }
+}
@@ -0,0 +1,15 @@
+package com.concitamedica.domain.reporte.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record EstadoReporteDTO(
+        UUID id,
+        String tipo,
+        String estado,
+        LocalDateTime solicitado,
+        LocalDateTime iniciado,
+        LocalDateTime finalizado,
+        Long tamanoBytes,
+        String error
+) {}
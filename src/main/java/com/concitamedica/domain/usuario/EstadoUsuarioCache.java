@@ -0,0 +1,63 @@
+package com.concitamedica.domain.usuario;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estado (habilitado o no) de los usuarios autenticados por JWT, para no consultar la BDD en cada petición.
+ * Las bajas y reactivaciones hechas por la aplicación se aplican en cuanto se confirma su transacción;
+ * el TTL solo cubre los cambios hechos directamente en la BDD.
+ */
+@Component
+public class EstadoUsuarioCache {
+
+    private final UsuarioRepository usuarioRepository;
+    private final long ttlNanos;
+    private final int maxUsuarios;
+    private final Map<String, Entrada> estados = new ConcurrentHashMap<>();
+
+    private record Entrada(boolean habilitado, long cargadoEn) {}
+
+    public EstadoUsuarioCache(UsuarioRepository usuarioRepository,
+                              @Value("${seguridad.estado-usuario.ttl-segundos:300}") long ttlSegundos,
+                              @Value("${seguridad.estado-usuario.max-usuarios:10000}") int maxUsuarios) {
+        this.usuarioRepository = usuarioRepository;
+        this.ttlNanos = Duration.ofSeconds(ttlSegundos).toNanos();
+        this.maxUsuarios = maxUsuarios;
+    }
+
+    /**
+     * Un usuario que ya no existe se considera deshabilitado.
+     */
+    public boolean estaHabilitado(String email) {
+        long ahora = System.nanoTime();
+        Entrada entrada = estados.get(email);
+        if (entrada != null && ahora - entrada.cargadoEn() < ttlNanos) {
+            return entrada.habilitado();
+        }
+
+        boolean habilitado = usuarioRepository.findEnabledByEmail(email).orElse(false);
+        guardar(email, habilitado, ahora);
+        return habilitado;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void alCambiarEstado(EstadoUsuarioCambiado evento) {
+        guardar(evento.email(), evento.habilitado(), System.nanoTime());
+    }
+
+    private void guardar(String email, boolean habilitado, long ahora) {
+        if (estados.size() >= maxUsuarios && !estados.containsKey(email)) {
+            estados.values().removeIf(entrada -> ahora - entrada.cargadoEn() >= ttlNanos);
+            if (estados.size() >= maxUsuarios) {
+                estados.clear();
+            }
+        }
+        estados.put(email, new Entrada(habilitado, ahora));
+    }
+}
@@ -0,0 +1,6 @@
+package com.concitamedica.domain.usuario;
+
+/**
+ * Se publica cuando un usuario se da de baja o se reactiva.
+ */
+public record EstadoUsuarioCambiado(String email, boolean habilitado) {}
@@ -0,0 +1,51 @@
+package com.concitamedica.domain.usuario;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Refresh token emitido a un usuario. Solo se guarda el SHA-256 del token: al ser un valor aleatorio
+ * de 256 bits no necesita un hash lento como BCrypt. Cada uso lo reemplaza por uno nuevo de la misma
+ * familia; si un token ya usado vuelve a presentarse, se revoca la familia completa.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_usuario", columnList = "usuario_id"),
+        @Index(name = "idx_refresh_tokens_familia", columnList = "familia")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @Column(nullable = false)
+    private UUID familia;
+
+    @Column(nullable = false)
+    private Instant expira;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean usado = false;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean revocado = false;
+}
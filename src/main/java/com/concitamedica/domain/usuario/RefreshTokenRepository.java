@@ -0,0 +1,40 @@
+package com.concitamedica.domain.usuario;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    // Bloquea la fila para que dos peticiones con el mismo token no puedan rotarlo a la vez.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RefreshToken r JOIN FETCH r.usuario u JOIN FETCH u.rol WHERE r.hash = :hash")
+    Optional<RefreshToken> findByHashParaRotar(@Param("hash") String hash);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.familia = :familia")
+    int revocarFamilia(@Param("familia") UUID familia);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.usuario.email = :email AND r.revocado = false")
+    int revocarDeUsuario(@Param("email") String email);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.usuario.id = :usuarioId AND r.expira <= :instante")
+    int eliminarExpiradosDeUsuario(@Param("usuarioId") Long usuarioId, @Param("instante") Instant instante);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken r WHERE r.expira <= :instante")
+    int eliminarExpirados(@Param("instante") Instant instante);
+}
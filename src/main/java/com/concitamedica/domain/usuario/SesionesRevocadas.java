@@ -0,0 +1,9 @@
+package com.concitamedica.domain.usuario;
+
+import java.time.Instant;
+
+/**
+ * Se publica cuando todos los tokens emitidos a un usuario antes de {@code desde} dejan de ser válidos
+ * (cambio de contraseña o baja).
+ */
+public record SesionesRevocadas(String email, Instant desde) {}
@@ -0,0 +1,30 @@
+package com.concitamedica.domain.usuario;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Token cerrado antes de su expiración (logout), identificado por su jti. La fila deja de hacer falta
+ * cuando el token expira.
+ */
+@Entity
+@Table(name = "tokens_revocados")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocado {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(nullable = false)
+    private Instant expira;
+}
@@ -12,6 +12,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
@@ -26,7 +27,8 @@ import java.util.List;
 public class Usuario extends Auditable implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre no puede estar en blanco.")
@@ -78,6 +80,10 @@ public class Usuario extends Auditable implements UserDetails {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    // Los JWT emitidos antes de este instante se rechazan (cambio de contraseña o baja).
+    @Column(name = "tokens_validos_desde")
+    private Instant tokensValidosDesde;
+
     // --- MÉTODOS DE USERDETAILS (Obligatorios) ---
 
     @Override
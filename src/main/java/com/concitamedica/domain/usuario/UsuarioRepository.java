@@ -1,7 +1,10 @@
 package com.concitamedica.domain.usuario;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
 import java.util.Optional; // Importante
 
 import java.util.List;
@@ -12,4 +15,9 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
 
     List<Usuario> findByRolNombre(String rolNombre);
+
+    List<Usuario> findAllByTokensValidosDesdeAfter(Instant instante);
+
+    @Query("SELECT u.enabled FROM Usuario u WHERE u.email = :email")
+    Optional<Boolean> findEnabledByEmail(@Param("email") String email);
 }
\ No newline at end of file
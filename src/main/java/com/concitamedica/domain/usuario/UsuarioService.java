@@ -6,6 +6,7 @@ import com.concitamedica.domain.usuario.dto.CambioPasswordDTO;
 import com.concitamedica.domain.usuario.dto.PerfilUpdateDTO;
 import com.concitamedica.domain.usuario.dto.RegistroUsuarioDTO;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -15,6 +16,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import java.time.Instant;
 import java.util.Collections;
 
 @Service
@@ -24,6 +26,7 @@ public class UsuarioService implements UserDetailsService{
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Usuario registrarUsuario(RegistroUsuarioDTO datosRegistro) {
@@ -97,6 +100,16 @@ public class UsuarioService implements UserDetailsService{
         }
 
         usuario.setPassword(passwordEncoder.encode(datos.nuevaPassword()));
+        revocarSesiones(usuario);
         usuarioRepository.save(usuario);
     }
+
+    /**
+     * Invalida todos los tokens ya emitidos al usuario. Debe llamarse dentro de la transacción que guarda el usuario.
+     */
+    public void revocarSesiones(Usuario usuario) {
+        Instant ahora = Instant.now();
+        usuario.setTokensValidosDesde(ahora);
+        eventPublisher.publishEvent(new SesionesRevocadas(usuario.getEmail(), ahora));
+    }
 }
\ No newline at end of file
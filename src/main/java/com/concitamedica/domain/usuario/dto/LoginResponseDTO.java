@@ -1,3 +1,3 @@
 package com.concitamedica.domain.usuario.dto;
 
-public record LoginResponseDTO(String token) {}
\ No newline at end of file
+public record LoginResponseDTO(String token, String refreshToken) {}
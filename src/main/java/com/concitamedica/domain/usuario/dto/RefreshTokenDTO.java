@@ -0,0 +1,7 @@
+package com.concitamedica.domain.usuario.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenDTO(
+        @NotBlank String refreshToken
+) {}
@@ -0,0 +1,77 @@
+package com.concitamedica.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre cadenas: {@link #puedeContener} nunca da falsos negativos y da falsos
+ * positivos con la probabilidad indicada mientras no se superen los elementos esperados.
+ * No admite borrados; para descartar elementos se construye uno nuevo.
+ */
+final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+    private final int elementosEsperados;
+    private int elementos;
+
+    FiltroBloom(int elementosEsperados, double probabilidadFalsoPositivo) {
+        int n = Math.max(elementosEsperados, 1);
+        this.elementosEsperados = n;
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    /**
+     * No es seguro llamarlo desde varios hilos a la vez; {@link #puedeContener} sí puede llamarse en paralelo.
+     */
+    void agregar(String valor) {
+        long hash1 = hash(valor, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(valor, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = indice(hash1 + i * hash2);
+            long mascara = 1L << bit;
+            bits.getAndUpdate(bit >>> 6, palabra -> palabra | mascara);
+        }
+        elementos++;
+    }
+
+    boolean puedeContener(String valor) {
+        long hash1 = hash(valor, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(valor, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = indice(hash1 + i * hash2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A partir de aquí la tasa de falsos positivos supera la prevista.
+     */
+    boolean saturado() {
+        return elementos >= elementosEsperados;
+    }
+
+    private int indice(long hash) {
+        return (int) ((hash & Long.MAX_VALUE) % numBits);
+    }
+
+    // Hash de 64 bits por caracteres con la mezcla final de MurmurHash3.
+    private static long hash(String valor, long semilla) {
+        long h = semilla ^ valor.length();
+        for (int i = 0; i < valor.length(); i++) {
+            h = (h ^ valor.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
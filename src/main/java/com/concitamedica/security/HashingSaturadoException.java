@@ -0,0 +1,20 @@
+package com.concitamedica.security;
+
+/**
+ * La cola de hashing de contraseñas está llena; el cliente debe reintentar pasados unos segundos.
+ */
+public class HashingSaturadoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long reintentarEnSegundos;
+
+    public HashingSaturadoException(long reintentarEnSegundos) {
+        super("El servicio está ocupado. Intente de nuevo en unos segundos.");
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
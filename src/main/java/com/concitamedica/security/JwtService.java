@@ -1,29 +1,48 @@
 package com.concitamedica.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.security.core.GrantedAuthority;
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final long jwtExpiration;
+    private final int maxTokensEnCache;
 
-    @Value("${jwt.expiration.ms}")
-    private long jwtExpiration;
+    // La clave y el parser se construyen una sola vez: decodificar el secreto en cada petición es trabajo repetido.
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // Tokens ya verificados, indexados por el SHA-256 del token. Cada entrada deja de usarse cuando el token expira.
+    private final Map<String, TokenVerificado> tokensVerificados = new ConcurrentHashMap<>();
+
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration.ms}") long jwtExpiration,
+                      @Value("${jwt.cache.max-tokens:10000}") int maxTokensEnCache) {
+        this.jwtExpiration = jwtExpiration;
+        this.maxTokensEnCache = maxTokensEnCache;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
@@ -34,48 +53,68 @@ public class JwtService {
         return createToken(claims, userDetails.getUsername());
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    /**
+     * Verifica firma y expiración con un único parseo del token. Devuelve vacío si el token no es válido.
+     */
+    public Optional<TokenVerificado> validarToken(String token) {
+        Instant ahora = Instant.now();
+        String digest = digest(token);
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+        TokenVerificado enCache = tokensVerificados.get(digest);
+        if (enCache != null) {
+            if (enCache.vigente(ahora)) {
+                return Optional.of(enCache);
+            }
+            tokensVerificados.remove(digest);
+            return Optional.empty();
+        }
+
+        TokenVerificado verificado;
+        try {
+            verificado = aTokenVerificado(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        guardarEnCache(digest, verificado, ahora);
+        return Optional.of(verificado);
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    private TokenVerificado aTokenVerificado(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        return new TokenVerificado(
+                claims.getId(),
+                claims.getSubject(),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant()
+        );
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private void guardarEnCache(String digest, TokenVerificado verificado, Instant ahora) {
+        if (tokensVerificados.size() >= maxTokensEnCache) {
+            tokensVerificados.values().removeIf(token -> !token.vigente(ahora));
+            if (tokensVerificados.size() >= maxTokensEnCache) {
+                // Todos siguen vigentes: se vacía la caché en lugar de llevar un orden de uso en cada acceso.
+                tokensVerificados.clear();
+            }
+        }
+        tokensVerificados.put(digest, verificado);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static String digest(String token) {
+        return Base64.getEncoder().encodeToString(Sha256.digest(token));
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long ahora = System.currentTimeMillis();
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .claims(claims)
+                .subject(subject)
+                .id(UUID.randomUUID().toString())
+                .issuedAt(new Date(ahora))
+                .expiration(new Date(ahora + jwtExpiration))
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package com.concitamedica.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta el hashing y la verificación de contraseñas en un pool propio con cola acotada, de modo que
+ * una ráfaga de logins no ocupe todos los núcleos. Si la cola está llena se rechaza la operación con
+ * {@link HashingSaturadoException} en lugar de esperar.
+ */
+public class PasswordEncoderAcotado implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor ejecutor;
+    private final Timer tiempoEncode;
+    private final Timer tiempoMatches;
+    private final Counter rechazos;
+
+    public PasswordEncoderAcotado(PasswordEncoder delegado, int hilos, int capacidadCola, MeterRegistry registry) {
+        this.delegado = delegado;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+                    Thread hilo = new Thread(tarea, "password-hash-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+
+        this.tiempoEncode = Timer.builder("seguridad.password.hash")
+                .description("Tiempo de cálculo del hash de contraseñas")
+                .tag("operacion", "encode")
+                .register(registry);
+        this.tiempoMatches = Timer.builder("seguridad.password.hash")
+                .description("Tiempo de cálculo del hash de contraseñas")
+                .tag("operacion", "matches")
+                .register(registry);
+        this.rechazos = Counter.builder("seguridad.password.rechazos")
+                .description("Operaciones rechazadas por cola de hashing llena")
+                .register(registry);
+        Gauge.builder("seguridad.password.en-cola", ejecutor, pool -> pool.getQueue().size())
+                .description("Operaciones de hashing esperando un hilo")
+                .register(registry);
+        Gauge.builder("seguridad.password.activas", ejecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones de hashing en curso")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> tiempoEncode.recordCallable(() -> delegado.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> tiempoMatches.recordCallable(() -> delegado.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T ejecutar(Callable<T> operacion) {
+        Future<T> resultado;
+        try {
+            resultado = ejecutor.submit(operacion);
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new HashingSaturadoException(segundosParaVaciarCola());
+        }
+
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hashing de contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error calculando el hash de la contraseña", e.getCause());
+        }
+    }
+
+    // Estimación a partir del tiempo medio de hash: lo que tardan los hilos en despachar la cola actual.
+    private long segundosParaVaciarCola() {
+        double mediaSegundos = Math.max(tiempoMatches.mean(TimeUnit.SECONDS), tiempoEncode.mean(TimeUnit.SECONDS));
+        int pendientes = ejecutor.getQueue().size() + ejecutor.getActiveCount();
+        return Math.max(1, (long) Math.ceil(pendientes * mediaSegundos / ejecutor.getMaximumPoolSize()));
+    }
+
+    @Override
+    public void close() {
+        ejecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,151 @@
+package com.concitamedica.security;
+
+import com.concitamedica.domain.usuario.RefreshToken;
+import com.concitamedica.domain.usuario.RefreshTokenRepository;
+import com.concitamedica.domain.usuario.SesionesRevocadas;
+import com.concitamedica.domain.usuario.Usuario;
+import com.concitamedica.domain.usuario.UsuarioService;
+import com.concitamedica.domain.usuario.dto.LoginResponseDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emite y rota los refresh tokens. Con ellos el cliente obtiene un nuevo access token sin volver
+ * a enviar la contraseña, así que la verificación BCrypt del login solo hace falta al iniciar sesión.
+ * <p>
+ * Todos los tokens de una familia comparten la caducidad del primero: rotar no alarga la sesión,
+ * que termina a los {@code jwt.refresh.expiration-dias} del login.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int BYTES_TOKEN = 32;
+    private static final Duration INTERVALO_LIMPIEZA = Duration.ofHours(1);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UsuarioService usuarioService;
+    private final JwtService jwtService;
+    private final Duration duracion;
+    private final SecureRandom aleatorio = new SecureRandom();
+
+    private final ScheduledExecutorService limpieza = Executors.newSingleThreadScheduledExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "refresh-tokens");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UsuarioService usuarioService,
+                               JwtService jwtService,
+                               @Value("${jwt.refresh.expiration-dias:30}") long diasValidez) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.usuarioService = usuarioService;
+        this.jwtService = jwtService;
+        this.duracion = Duration.ofDays(diasValidez);
+    }
+
+    @PostConstruct
+    void programarLimpieza() {
+        long intervalo = INTERVALO_LIMPIEZA.toMillis();
+        limpieza.scheduleWithFixedDelay(this::limpiar, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Inicia una sesión nueva (login con contraseña): access token y primer refresh token de una familia nueva.
+     */
+    @Transactional
+    public LoginResponseDTO iniciarSesion(String email) {
+        Usuario usuario = usuarioService.buscarPorEmail(email);
+        refreshTokenRepository.eliminarExpiradosDeUsuario(usuario.getId(), Instant.now());
+        return emitir(usuario, UUID.randomUUID(), Instant.now().plus(duracion));
+    }
+
+    /**
+     * Cambia un refresh token válido por un access token y un refresh token nuevos. El token presentado
+     * queda usado; si se presenta otra vez se asume robado y se revoca toda su familia.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public LoginResponseDTO rotar(String token) {
+        RefreshToken actual = refreshTokenRepository.findByHashParaRotar(hash(token))
+                .orElseThrow(() -> new BadCredentialsException("Refresh token inválido."));
+
+        if (actual.isUsado() && !actual.isRevocado()) {
+            refreshTokenRepository.revocarFamilia(actual.getFamilia());
+            log.warn("Refresh token reutilizado para {}: se revoca la familia {}",
+                    actual.getUsuario().getEmail(), actual.getFamilia());
+        }
+        if (actual.isUsado() || actual.isRevocado() || !actual.getExpira().isAfter(Instant.now())
+                || !actual.getUsuario().isEnabled()) {
+            throw new BadCredentialsException("Refresh token inválido.");
+        }
+
+        actual.setUsado(true);
+        return emitir(actual.getUsuario(), actual.getFamilia(), actual.getExpira());
+    }
+
+    /**
+     * Cierra la sesión del refresh token: su familia deja de poder rotarse. Un token desconocido se ignora.
+     */
+    @Transactional
+    public void revocar(String token) {
+        refreshTokenRepository.findById(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.revocarFamilia(refreshToken.getFamilia()));
+    }
+
+    // Se ejecuta dentro de la transacción del cambio de contraseña o la baja.
+    @EventListener
+    void alRevocarSesiones(SesionesRevocadas evento) {
+        refreshTokenRepository.revocarDeUsuario(evento.email());
+    }
+
+    // Las filas de familias caducadas ya no sirven ni para detectar reutilizaciones.
+    private void limpiar() {
+        try {
+            int eliminados = refreshTokenRepository.eliminarExpirados(Instant.now());
+            log.debug("Refresh tokens caducados eliminados: {}", eliminados);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron eliminar los refresh tokens caducados: {}", e.getMessage());
+        }
+    }
+
+    private LoginResponseDTO emitir(Usuario usuario, UUID familia, Instant expira) {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        aleatorio.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .hash(hash(token))
+                .usuario(usuario)
+                .familia(familia)
+                .expira(expira)
+                .build());
+
+        return new LoginResponseDTO(jwtService.generateToken(usuario), token);
+    }
+
+    private static String hash(String token) {
+        return HexFormat.of().formatHex(Sha256.digest(token));
+    }
+
+    @PreDestroy
+    void detener() {
+        limpieza.shutdownNow();
+    }
+}
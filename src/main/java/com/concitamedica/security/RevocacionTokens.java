@@ -0,0 +1,157 @@
+package com.concitamedica.security;
+
+import com.concitamedica.domain.usuario.SesionesRevocadas;
+import com.concitamedica.domain.usuario.TokenRevocado;
+import com.concitamedica.domain.usuario.TokenRevocadoRepository;
+import com.concitamedica.domain.usuario.Usuario;
+import com.concitamedica.domain.usuario.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens revocados antes de expirar: por jti (logout) o por usuario a partir de un instante
+ * (cambio de contraseña o baja). Las revocaciones se guardan en la BDD y se mantienen en memoria
+ * mientras algún token afectado pueda seguir vigente.
+ * <p>
+ * La comprobación pasa primero por un filtro de Bloom: en el caso habitual (token no revocado)
+ * basta con unos pocos accesos a memoria y solo los positivos consultan los mapas exactos.
+ */
+@Service
+@Slf4j
+public class RevocacionTokens {
+
+    private static final double PROBABILIDAD_FALSO_POSITIVO = 0.01;
+    private static final Duration INTERVALO_LIMPIEZA = Duration.ofMinutes(10);
+
+    private final TokenRevocadoRepository tokenRevocadoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final Duration duracionToken;
+    private final int capacidadInicial;
+
+    private final Map<String, Instant> jtiRevocados = new ConcurrentHashMap<>();
+    private final Map<String, Instant> validosDesde = new ConcurrentHashMap<>();
+    private volatile FiltroBloom filtro;
+
+    private final ScheduledExecutorService limpieza = Executors.newSingleThreadScheduledExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "revocacion-tokens");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public RevocacionTokens(TokenRevocadoRepository tokenRevocadoRepository,
+                            UsuarioRepository usuarioRepository,
+                            @Value("${jwt.expiration.ms}") long jwtExpiration,
+                            @Value("${jwt.revocacion.capacidad:10000}") int capacidadInicial) {
+        this.tokenRevocadoRepository = tokenRevocadoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.duracionToken = Duration.ofMillis(jwtExpiration);
+        this.capacidadInicial = capacidadInicial;
+    }
+
+    @PostConstruct
+    void cargar() {
+        Instant ahora = Instant.now();
+        for (TokenRevocado token : tokenRevocadoRepository.findAllByExpiraAfter(ahora)) {
+            jtiRevocados.put(token.getJti(), token.getExpira());
+        }
+        for (Usuario usuario : usuarioRepository.findAllByTokensValidosDesdeAfter(ahora.minus(duracionToken))) {
+            validosDesde.put(usuario.getEmail(), usuario.getTokensValidosDesde());
+        }
+        reconstruirFiltro();
+        log.info("Revocaciones cargadas: {} tokens y {} usuarios", jtiRevocados.size(), validosDesde.size());
+
+        long intervalo = INTERVALO_LIMPIEZA.toMillis();
+        limpieza.scheduleWithFixedDelay(this::limpiar, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean estaRevocado(TokenVerificado token) {
+        FiltroBloom actual = filtro;
+
+        if (token.id() != null && actual.puedeContener(claveJti(token.id())) && jtiRevocados.containsKey(token.id())) {
+            return true;
+        }
+        if (actual.puedeContener(claveUsuario(token.email()))) {
+            Instant desde = validosDesde.get(token.email());
+            // El iat del JWT tiene precisión de segundos.
+            return desde != null && token.emitido().isBefore(desde.truncatedTo(ChronoUnit.SECONDS));
+        }
+        return false;
+    }
+
+    /**
+     * Revoca un único token (logout). Los tokens sin jti, emitidos antes de existir la revocación, no se pueden revocar así.
+     */
+    public void revocar(TokenVerificado token) {
+        if (token.id() == null) {
+            return;
+        }
+        tokenRevocadoRepository.save(new TokenRevocado(token.id(), token.expira()));
+        registrar(jtiRevocados, token.id(), token.expira(), claveJti(token.id()));
+    }
+
+    // La marca ya quedó guardada en el usuario; aquí solo se refleja en memoria una vez confirmada.
+    @TransactionalEventListener(fallbackExecution = true)
+    void alRevocarSesiones(SesionesRevocadas evento) {
+        registrar(validosDesde, evento.email(), evento.desde(), claveUsuario(evento.email()));
+    }
+
+    private synchronized void registrar(Map<String, Instant> revocaciones, String clave, Instant valor, String claveFiltro) {
+        // El mapa exacto se actualiza antes que el filtro: quien vea el bit encendido encuentra la entrada.
+        revocaciones.merge(clave, valor, (anterior, nuevo) -> nuevo.isAfter(anterior) ? nuevo : anterior);
+        if (filtro.saturado()) {
+            reconstruirFiltro();
+        } else {
+            filtro.agregar(claveFiltro);
+        }
+    }
+
+    private void limpiar() {
+        try {
+            Instant ahora = Instant.now();
+            jtiRevocados.values().removeIf(expira -> !expira.isAfter(ahora));
+            validosDesde.values().removeIf(desde -> !desde.plus(duracionToken).isAfter(ahora));
+            reconstruirFiltro();
+            tokenRevocadoRepository.eliminarExpirados(ahora);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo limpiar la lista de tokens revocados: {}", e.getMessage());
+        }
+    }
+
+    // Un filtro de Bloom no admite borrados: se construye uno nuevo con las revocaciones vigentes y se publica.
+    private synchronized void reconstruirFiltro() {
+        FiltroBloom nuevo = new FiltroBloom(capacidadFiltro(), PROBABILIDAD_FALSO_POSITIVO);
+        jtiRevocados.keySet().forEach(jti -> nuevo.agregar(claveJti(jti)));
+        validosDesde.keySet().forEach(email -> nuevo.agregar(claveUsuario(email)));
+        filtro = nuevo;
+    }
+
+    private int capacidadFiltro() {
+        return Math.max(capacidadInicial, 2 * (jtiRevocados.size() + validosDesde.size()));
+    }
+
+    private static String claveJti(String jti) {
+        return "jti:" + jti;
+    }
+
+    private static String claveUsuario(String email) {
+        return "usuario:" + email;
+    }
+
+    @PreDestroy
+    void detener() {
+        limpieza.shutdownNow();
+    }
+}
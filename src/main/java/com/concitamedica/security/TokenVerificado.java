@@ -0,0 +1,31 @@
+package com.concitamedica.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Datos de un JWT cuya firma y vigencia ya fueron verificadas. Es el principal de las peticiones
+ * autenticadas por token, así que {@code Authentication.getName()} devuelve el email.
+ */
+public record TokenVerificado(
+        String id,
+        String email,
+        List<String> roles,
+        Instant emitido,
+        Instant expira
+) implements AuthenticatedPrincipal {
+    public TokenVerificado {
+        roles = List.copyOf(roles);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean vigente(Instant ahora) {
+        return ahora.isBefore(expira);
+    }
+}
@@ -1,18 +1,38 @@
 package com.concitamedica.web;
 
+import com.concitamedica.domain.agenda.IndiceDisponibilidad;
+import com.concitamedica.domain.cita.CierreCitasService;
+import com.concitamedica.domain.cita.ExportacionCitasService;
+import com.concitamedica.domain.cita.FiltroCitas;
+import com.concitamedica.domain.cita.FormatoExportacion;
+import com.concitamedica.domain.cita.ListadoCitasService;
 import com.concitamedica.domain.cita.CitaRepository;
-import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+import com.concitamedica.domain.cita.dto.CierreCitasDTO;
+import com.concitamedica.domain.cita.dto.EstadoCierreDTO;
+import com.concitamedica.domain.cita.dto.PaginaCitasDTO;
 import com.concitamedica.domain.cita.EstadoCita;
+import com.concitamedica.domain.paciente.AgendamientoLoteService;
+import com.concitamedica.domain.paciente.dto.AgendarCitaAdminDTO;
+import com.concitamedica.domain.paciente.dto.ResultadoLoteCitaDTO;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 import com.concitamedica.domain.cita.Cita;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/admin/citas")
@@ -20,15 +40,68 @@ import org.springframework.web.bind.annotation.*;
 public class AdminCitaController {
 
     private final CitaRepository citaRepository;
+    private final IndiceDisponibilidad indiceDisponibilidad;
+    private final AgendamientoLoteService agendamientoLoteService;
+    private final CierreCitasService cierreCitasService;
+    private final ListadoCitasService listadoCitasService;
+    private final ExportacionCitasService exportacionCitasService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<CitaResponseDTO>> listarTodasLasCitas() {
-        List<CitaResponseDTO> citas = citaRepository.findAllByOrderByFechaHoraInicioDesc().stream()
-                .map(this::mapToDTO)
-                .toList();
+    public ResponseEntity<PaginaCitasDTO> listarCitas(
+            @RequestParam(required = false) EstadoCita estado,
+            @RequestParam(required = false) Long medicoId,
+            @RequestParam(required = false) Long pacienteId,
+            @RequestParam(required = false) Long especialidadId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite) {
 
-        return ResponseEntity.ok(citas);
+        FiltroCitas filtro = new FiltroCitas(estado, medicoId, pacienteId, especialidadId, desde, hasta);
+        return ResponseEntity.ok(listadoCitasService.listar(filtro, cursor, limite));
+    }
+
+    @GetMapping("/exportar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarCitas(
+            @RequestParam(required = false) EstadoCita estado,
+            @RequestParam(required = false) Long medicoId,
+            @RequestParam(required = false) Long pacienteId,
+            @RequestParam(required = false) Long especialidadId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(defaultValue = "ndjson") String formato) {
+
+        FormatoExportacion formatoExportacion = FormatoExportacion.desde(formato);
+        FiltroCitas filtro = new FiltroCitas(estado, medicoId, pacienteId, especialidadId, desde, hasta);
+
+        // El cuerpo se escribe en el executor de peticiones asíncronas, no en el hilo HTTP.
+        StreamingResponseBody cuerpo = salida -> exportacionCitasService.exportar(filtro, formatoExportacion, salida);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=citas." + formatoExportacion.getExtension())
+                .contentType(MediaType.parseMediaType(formatoExportacion.getTipoContenido()))
+                .body(cuerpo);
+    }
+
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ResultadoLoteCitaDTO>> agendarCitasLote(
+            @Valid @RequestBody List<@NotNull AgendarCitaAdminDTO> citas) {
+        return ResponseEntity.ok(agendamientoLoteService.agendarLoteAdmin(citas));
+    }
+
+    @PostMapping("/cierre")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EstadoCierreDTO> iniciarCierre(@RequestBody @Valid CierreCitasDTO datosCierre) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(cierreCitasService.iniciarCierre(datosCierre));
+    }
+
+    @GetMapping("/cierre/{trabajoId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EstadoCierreDTO> consultarCierre(@PathVariable UUID trabajoId) {
+        return ResponseEntity.ok(cierreCitasService.consultarCierre(trabajoId));
     }
 
     @PutMapping("/{id}/cancelar")
@@ -37,26 +110,14 @@ public class AdminCitaController {
     public ResponseEntity<Void> cancelarCita(@PathVariable Long id) {
         Cita cita = citaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Cita no encontrada"));
+        boolean estabaAgendada = cita.getEstado() == EstadoCita.AGENDADA;
         cita.setEstado(EstadoCita.CANCELADA_ADMIN);
         citaRepository.save(cita);
 
-        return ResponseEntity.noContent().build();
-    }
+        if (estabaAgendada) {
+            indiceDisponibilidad.liberarCita(cita.getMedico().getId(), cita.getFechaHoraInicio());
+        }
 
-    private CitaResponseDTO mapToDTO(Cita cita) {
-        String nombreMedico = cita.getMedico().getUsuario().getNombre() + " " + cita.getMedico().getUsuario().getApellido();
-        String nombrePaciente = cita.getPaciente().getNombre() + " " + cita.getPaciente().getApellido();
-
-        return new CitaResponseDTO(
-                cita.getId(),
-                cita.getMedico().getId(),
-                cita.getPaciente().getId(),
-                nombreMedico,
-                nombrePaciente,
-                cita.getMedico().getEspecialidad().getNombre(),
-                cita.getFechaHoraInicio(),
-                cita.getFechaHoraFin(),
-                cita.getEstado().name()
-        );
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -8,7 +8,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import com.concitamedica.security.JwtService;
+import com.concitamedica.security.RefreshTokenService;
+import com.concitamedica.security.RevocacionTokens;
+import com.concitamedica.security.TokenVerificado;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -22,7 +24,8 @@ public class AuthController {
 
     private final UsuarioService usuarioService;
     private final AuthenticationManager authenticationManager;
-    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final RevocacionTokens revocacionTokens;
 
     @PostMapping("/register")
     public ResponseEntity<Usuario> registrar(@Valid @RequestBody RegistroUsuarioDTO datosRegistro) {
@@ -40,9 +43,25 @@ public class AuthController {
         );
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtService.generateToken(userDetails);
+        return ResponseEntity.ok(refreshTokenService.iniciarSesion(userDetails.getUsername()));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refrescar(@Valid @RequestBody RefreshTokenDTO datos) {
+        return ResponseEntity.ok(refreshTokenService.rotar(datos.refreshToken()));
+    }
 
-        return ResponseEntity.ok(new LoginResponseDTO(token));
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestBody(required = false) RefreshTokenDTO datos,
+            Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof TokenVerificado token) {
+            revocacionTokens.revocar(token);
+        }
+        if (datos != null && datos.refreshToken() != null) {
+            refreshTokenService.revocar(datos.refreshToken());
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/me")
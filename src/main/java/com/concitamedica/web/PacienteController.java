@@ -1,9 +1,15 @@
 package com.concitamedica.web;
 
+import com.concitamedica.domain.agenda.BusquedaDisponibilidadService;
+import com.concitamedica.domain.agenda.dto.SlotDisponibleDTO;
 import com.concitamedica.domain.cita.dto.CitaResponseDTO;
+import com.concitamedica.domain.paciente.AgendamientoLoteService;
 import com.concitamedica.domain.paciente.PacienteService;
 import com.concitamedica.domain.paciente.dto.DisponibilidadDTO;
+import com.concitamedica.domain.paciente.dto.DisponibilidadDiaDTO;
+import com.concitamedica.domain.paciente.dto.ResultadoLoteCitaDTO;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -11,11 +17,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import com.concitamedica.domain.paciente.dto.AgendarCitaDTO;
+import com.concitamedica.domain.paciente.dto.AgendarSerieDTO;
+import com.concitamedica.domain.paciente.dto.SerieCitasDTO;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -25,6 +34,8 @@ import java.util.List;
 public class PacienteController {
 
     private final PacienteService pacienteService;
+    private final BusquedaDisponibilidadService busquedaDisponibilidadService;
+    private final AgendamientoLoteService agendamientoLoteService;
 
     @GetMapping("/medicos/{medicoId}/disponibilidad")
     @PreAuthorize("hasRole('PACIENTE')")
@@ -36,6 +47,26 @@ public class PacienteController {
         return ResponseEntity.ok(disponibilidad);
     }
 
+    @GetMapping(value = "/medicos/{medicoId}/disponibilidad", params = {"desde", "hasta"})
+    @PreAuthorize("hasRole('PACIENTE')")
+    public ResponseEntity<List<DisponibilidadDiaDTO>> obtenerDisponibilidadRango(
+            @PathVariable Long medicoId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+
+        return ResponseEntity.ok(pacienteService.calcularDisponibilidadRango(medicoId, desde, hasta));
+    }
+
+    @GetMapping("/especialidades/{especialidadId}/proximos-slots")
+    @PreAuthorize("hasRole('PACIENTE')")
+    public ResponseEntity<List<SlotDisponibleDTO>> buscarProximosSlots(
+            @PathVariable Long especialidadId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(defaultValue = "10") int limite) {
+
+        return ResponseEntity.ok(busquedaDisponibilidadService.buscarPrimerosSlots(especialidadId, desde, limite));
+    }
+
     @PostMapping("/citas")
     @PreAuthorize("hasRole('PACIENTE')")
     public ResponseEntity<CitaResponseDTO> agendarCita(
@@ -51,6 +82,25 @@ public class PacienteController {
         }
     }
 
+    @PostMapping("/citas/lote")
+    @PreAuthorize("hasRole('PACIENTE')")
+    public ResponseEntity<List<ResultadoLoteCitaDTO>> agendarCitasLote(
+            @Valid @RequestBody List<@NotNull AgendarCitaDTO> citas,
+            Authentication authentication) {
+
+        return ResponseEntity.ok(agendamientoLoteService.agendarLote(citas, authentication.getName()));
+    }
+
+    @PostMapping("/citas/serie")
+    @PreAuthorize("hasRole('PACIENTE')")
+    public ResponseEntity<SerieCitasDTO> agendarSerie(
+            @RequestBody @Valid AgendarSerieDTO datosSerie,
+            Authentication authentication) {
+
+        SerieCitasDTO serie = agendamientoLoteService.agendarSerie(datosSerie, authentication.getName());
+        return ResponseEntity.status(serie.agendadas() > 0 ? HttpStatus.CREATED : HttpStatus.OK).body(serie);
+    }
+
     @GetMapping("/citas/proximas")
     @PreAuthorize("hasRole('PACIENTE')")
     public ResponseEntity<List<CitaResponseDTO>> obtenerProximasCitas(Authentication authentication) {
@@ -1,70 +1,104 @@
 package com.concitamedica.web;
 
-import com.concitamedica.domain.reporte.ReporteService;
+import com.concitamedica.domain.cita.EstadoCita;
+import com.concitamedica.domain.reporte.ParametrosReporte;
+import com.concitamedica.domain.reporte.TipoReporte;
+import com.concitamedica.domain.reporte.TrabajosReporteService;
+import com.concitamedica.domain.reporte.dto.EstadoReporteDTO;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import net.sf.jasperreports.engine.JRException;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/admin/reportes")
 @RequiredArgsConstructor
-@Slf4j
 public class ReporteController {
 
-    private final ReporteService reporteService;
+    private final TrabajosReporteService trabajosReporteService;
+
+    // Las descargas directas pasan por el mismo pool acotado que los trabajos y responden de forma asíncrona:
+    // el hilo HTTP queda libre mientras se genera el PDF y, si no está listo a tiempo, se responde 202 con
+    // la URL del trabajo.
 
     @GetMapping("/medicos")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> descargarReporteMedicos() {
-        try {
-            byte[] reportePdf = reporteService.generarReporteMedicos();
+    public CompletableFuture<ResponseEntity<?>> descargarReporteMedicos(@RequestParam(required = false) Long especialidadId) {
+        ParametrosReporte parametros = new ParametrosReporte(null, null, especialidadId, null, null);
+        return trabajosReporteService.solicitarYEsperar(TipoReporte.MEDICOS, parametros).thenApply(this::entregar);
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=medicos_reporte.pdf");
+    @GetMapping("/pacientes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<?>> descargarReportePacientes() {
+        return trabajosReporteService.solicitarYEsperar(TipoReporte.PACIENTES, ParametrosReporte.sinFiltros())
+                .thenApply(this::entregar);
+    }
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(reportePdf);
+    @GetMapping("/citas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<?>> descargarReporteCitas(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) Long especialidadId,
+            @RequestParam(required = false) Long medicoId,
+            @RequestParam(required = false) EstadoCita estado) {
 
-        } catch (JRException e) {
-            log.error("Error generando el reporte de médicos: {}", e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
-        }
+        ParametrosReporte parametros = new ParametrosReporte(desde, hasta, especialidadId, medicoId, estado);
+        return trabajosReporteService.solicitarYEsperar(TipoReporte.CITAS, parametros).thenApply(this::entregar);
     }
 
-    @GetMapping("/pacientes")
+    @PostMapping("/trabajos")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> descargarReportePacientes() {
-        try {
-            byte[] reportePdf = reporteService.generarReportePacientes();
-            HttpHeaders headers = new HttpHeaders();
-            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=pacientes_reporte.pdf");
-            return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF).body(reportePdf);
-        } catch (JRException e) {
-            log.error("Error reporte pacientes", e);
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<EstadoReporteDTO> solicitarReporte(
+            @RequestParam String tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) Long especialidadId,
+            @RequestParam(required = false) Long medicoId,
+            @RequestParam(required = false) EstadoCita estado) {
+
+        ParametrosReporte parametros = new ParametrosReporte(desde, hasta, especialidadId, medicoId, estado);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(trabajosReporteService.solicitar(TipoReporte.desde(tipo), parametros));
     }
 
-    @GetMapping("/citas")
+    @GetMapping("/trabajos/{trabajoId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EstadoReporteDTO> consultarReporte(@PathVariable UUID trabajoId) {
+        return ResponseEntity.ok(trabajosReporteService.consultar(trabajoId));
+    }
+
+    @GetMapping("/trabajos/{trabajoId}/archivo")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> descargarReporteCitas() {
-        try {
-            byte[] reportePdf = reporteService.generarReporteCitas();
-            HttpHeaders headers = new HttpHeaders();
-            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=citas_reporte.pdf");
-            return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF).body(reportePdf);
-        } catch (JRException e) {
-            log.error("Error reporte citas", e);
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<FileSystemResource> descargarReporte(@PathVariable UUID trabajoId) {
+        FileSystemResource archivo = trabajosReporteService.obtenerArchivo(trabajoId);
+        String nombre = trabajosReporteService.tipo(trabajoId).getNombreArchivo();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + nombre)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(archivo);
+    }
+
+    private ResponseEntity<?> entregar(EstadoReporteDTO trabajo) {
+        return switch (trabajo.estado()) {
+            case "COMPLETADO" -> descargarReporte(trabajo.id());
+            case "FALLIDO" -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(trabajo);
+            default -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/admin/reportes/trabajos/" + trabajo.id()))
+                    .body(trabajo);
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+-- Un médico no puede tener dos citas AGENDADAS que se solapen en el tiempo.
+-- btree_gist permite combinar la igualdad sobre medico_id con el solapamiento de rangos.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE citas
+    ADD CONSTRAINT citas_medico_sin_solapamiento
+        EXCLUDE USING gist (
+            medico_id WITH =,
+            tsrange(fecha_hora_inicio, fecha_hora_fin) WITH &&
+        )
+        WHERE (estado = 'AGENDADA');
@@ -0,0 +1,4 @@
+-- Las citas creadas a partir de una regla de recurrencia comparten un identificador de serie.
+ALTER TABLE citas ADD COLUMN IF NOT EXISTS serie_id UUID;
+
+CREATE INDEX IF NOT EXISTS idx_citas_serie_id ON citas (serie_id) WHERE serie_id IS NOT NULL;
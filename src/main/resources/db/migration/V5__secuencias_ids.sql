@@ -0,0 +1,16 @@
+-- Los ids pasan de IDENTITY a secuencias con incremento 50 (optimizador pooled de Hibernate),
+-- lo que permite agrupar los INSERT en lotes JDBC. Cada secuencia se adelanta por encima del
+-- mayor id existente y de cualquier bloque ya reservado, para no repetir valores.
+CREATE SEQUENCE IF NOT EXISTS roles_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS especialidades_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS usuarios_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS medicos_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS horarios_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS citas_seq INCREMENT BY 50;
+
+SELECT setval('roles_seq', GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM roles_seq)) + 50, false) FROM roles;
+SELECT setval('especialidades_seq', GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM especialidades_seq)) + 50, false) FROM especialidades;
+SELECT setval('usuarios_seq', GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM usuarios_seq)) + 50, false) FROM usuarios;
+SELECT setval('medicos_seq', GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM medicos_seq)) + 50, false) FROM medicos;
+SELECT setval('horarios_seq', GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM horarios_seq)) + 50, false) FROM horarios;
+SELECT setval('citas_seq', GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM citas_seq)) + 50, false) FROM citas;
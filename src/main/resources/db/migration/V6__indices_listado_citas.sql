@@ -0,0 +1,6 @@
+-- Índices para el listado paginado por (fecha_hora_inicio, id): uno general y uno por cada filtro
+-- de igualdad habitual. El filtro por especialidad se resuelve a través de medico_id.
+CREATE INDEX IF NOT EXISTS idx_citas_inicio_id ON citas (fecha_hora_inicio, id);
+CREATE INDEX IF NOT EXISTS idx_citas_estado_inicio_id ON citas (estado, fecha_hora_inicio, id);
+CREATE INDEX IF NOT EXISTS idx_citas_medico_inicio_id ON citas (medico_id, fecha_hora_inicio, id);
+CREATE INDEX IF NOT EXISTS idx_citas_paciente_inicio_id ON citas (paciente_id, fecha_hora_inicio, id);
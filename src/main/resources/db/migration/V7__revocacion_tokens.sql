@@ -0,0 +1,8 @@
+-- Los tokens emitidos a un usuario antes de esta marca ya no se aceptan (cambio de contraseña o baja).
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS tokens_validos_desde TIMESTAMP(6) WITH TIME ZONE;
+
+-- Tokens cerrados con logout, por jti, hasta que expiran.
+CREATE TABLE IF NOT EXISTS tokens_revocados (
+    jti    VARCHAR(36) PRIMARY KEY,
+    expira TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
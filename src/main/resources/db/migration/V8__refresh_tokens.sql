@@ -0,0 +1,12 @@
+-- Refresh tokens rotativos. Solo se guarda el SHA-256 (hex) de cada token.
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    hash       VARCHAR(64) PRIMARY KEY,
+    usuario_id BIGINT NOT NULL REFERENCES usuarios (id),
+    familia    UUID NOT NULL,
+    expira     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    usado      BOOLEAN NOT NULL DEFAULT FALSE,
+    revocado   BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_usuario ON refresh_tokens (usuario_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_familia ON refresh_tokens (familia);
@@ -0,0 +1,58 @@
+package com.concitamedica.domain.horario;
+
+import com.concitamedica.domain.horario.dto.CreacionHorarioDTO;
+import com.concitamedica.domain.medico.Medico;
+import com.concitamedica.domain.medico.MedicoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CrearHorariosEnLoteTest {
+
+    private static final int BLOQUES = 20;
+
+    @Autowired
+    private HorarioService horarioService;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void losHorariosDeUnLoteSeInsertanConUnaSolaSentenciaPreparada() {
+        Medico medico = medicoRepository.findByUsuarioEmail("pedro.sanchez@email.com").orElseThrow();
+
+        // Bloques de 30 minutos consecutivos en sábado: el médico no tiene horario ese día.
+        List<CreacionHorarioDTO> bloques = new ArrayList<>();
+        LocalTime inicio = LocalTime.of(7, 0);
+        for (int i = 0; i < BLOQUES; i++) {
+            bloques.add(new CreacionHorarioDTO(DiaSemana.SABADO, inicio, inicio.plusMinutes(30)));
+            inicio = inicio.plusMinutes(30);
+        }
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.setStatisticsEnabled(true);
+        estadisticas.clear();
+        try {
+            horarioService.crearHorariosEnLote(medico.getId(), bloques);
+
+            assertThat(estadisticas.getEntityInsertCount()).isEqualTo(BLOQUES);
+            // Médico + horarios existentes + secuencia (hasta dos llamadas) + un único INSERT en lote.
+            assertThat(estadisticas.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        } finally {
+            estadisticas.setStatisticsEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.concitamedica.domain.paciente;
+
+import com.concitamedica.domain.cita.Cita;
+import com.concitamedica.domain.cita.CitaRepository;
+import com.concitamedica.domain.cita.EstadoCita;
+import com.concitamedica.domain.medico.Medico;
+import com.concitamedica.domain.medico.MedicoRepository;
+import com.concitamedica.domain.paciente.dto.AgendarCitaDTO;
+import com.concitamedica.domain.rol.Rol;
+import com.concitamedica.domain.rol.RolRepository;
+import com.concitamedica.domain.usuario.Usuario;
+import com.concitamedica.domain.usuario.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.concitamedica.domain.rol.Roles.ROLE_PACIENTE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AgendarCitaConcurrenteTest {
+
+    private static final int HILOS = 16;
+    private static final int RONDAS = 5;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Test
+    void reservasSimultaneasDelMismoSlotDejanUnaSolaCitaAgendada() throws Exception {
+        Medico medico = medicoRepository.findByUsuarioEmail("juan.perez@email.com").orElseThrow();
+        LocalDate lunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        for (int ronda = 0; ronda < RONDAS; ronda++) {
+            LocalDateTime slot = lunes.atTime(LocalTime.of(9, 0).plusMinutes(30L * ronda));
+            List<Usuario> pacientes = crearPacientes(HILOS);
+
+            List<Callable<Boolean>> intentos = pacientes.stream()
+                    .<Callable<Boolean>>map(paciente -> () -> {
+                        try {
+                            pacienteService.agendarCita(new AgendarCitaDTO(medico.getId(), slot), paciente.getEmail());
+                            return true;
+                        } catch (IllegalStateException e) {
+                            return false;
+                        }
+                    })
+                    .toList();
+
+            assertThat(ejecutarALaVez(intentos)).isEqualTo(1);
+            assertThat(contarAgendadas(medico.getId(), slot)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void laRestriccionDeExclusionImpideSolapamientosSinValidacionesDeAplicacion() throws Exception {
+        Medico medico = medicoRepository.findByUsuarioEmail("laura.gomez@email.com").orElseThrow();
+        LocalDateTime inicio = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.TUESDAY)).atTime(11, 0);
+        List<Usuario> pacientes = crearPacientes(HILOS);
+
+        // Cada hilo inserta una cita desplazada unos minutos: todas se solapan entre sí.
+        List<Callable<Boolean>> inserciones = new ArrayList<>();
+        for (int i = 0; i < pacientes.size(); i++) {
+            Usuario paciente = pacientes.get(i);
+            LocalDateTime inicioCita = inicio.plusMinutes(i % 10);
+            inserciones.add(() -> {
+                try {
+                    citaRepository.saveAndFlush(Cita.builder()
+                            .paciente(paciente)
+                            .medico(medico)
+                            .fechaHoraInicio(inicioCita)
+                            .fechaHoraFin(inicioCita.plusMinutes(30))
+                            .estado(EstadoCita.AGENDADA)
+                            .build());
+                    return true;
+                } catch (DataIntegrityViolationException e) {
+                    return false;
+                }
+            });
+        }
+
+        assertThat(ejecutarALaVez(inserciones)).isEqualTo(1);
+        assertThat(citaRepository.findAllByMedicoIdAndFechaHoraInicioBetween(medico.getId(), inicio, inicio.plusMinutes(30))
+                .stream()
+                .filter(cita -> cita.getEstado() == EstadoCita.AGENDADA)
+                .count()).isEqualTo(1);
+    }
+
+    private long ejecutarALaVez(List<Callable<Boolean>> tareas) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tareas.size());
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> resultados = new ArrayList<>();
+            for (Callable<Boolean> tarea : tareas) {
+                resultados.add(executor.submit(() -> {
+                    salida.await();
+                    return tarea.call();
+                }));
+            }
+            salida.countDown();
+
+            long exitos = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get(30, TimeUnit.SECONDS)) {
+                    exitos++;
+                }
+            }
+            return exitos;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long contarAgendadas(Long medicoId, LocalDateTime slot) {
+        return citaRepository.findAllByMedicoIdAndFechaHoraInicioBetween(medicoId, slot, slot).stream()
+                .filter(cita -> cita.getEstado() == EstadoCita.AGENDADA)
+                .count();
+    }
+
+    private List<Usuario> crearPacientes(int cantidad) {
+        Rol rolPaciente = rolRepository.findByNombre(ROLE_PACIENTE).orElseThrow();
+        List<Usuario> pacientes = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            String sufijo = UUID.randomUUID().toString().substring(0, 8);
+            pacientes.add(Usuario.builder()
+                    .nombre("Paciente")
+                    .apellido("Concurrente")
+                    .documento("5" + String.format("%07d", i))
+                    .email("concurrente-" + sufijo + "@email.com")
+                    .password("$2a$10$hashDePruebaNoUtilizadoParaAutenticacion")
+                    .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                    .genero("OTRO")
+                    .rol(rolPaciente)
+                    .build());
+        }
+        return usuarioRepository.saveAll(pacientes);
+    }
+}
@@ -0,0 +1,51 @@
+package com.concitamedica.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiltroBloomTest {
+
+    private static final int CAPACIDAD = 10_000;
+    private static final int CONSULTAS = 100_000;
+
+    @Test
+    void noDaFalsosNegativos() {
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, 0.01);
+        for (int i = 0; i < CAPACIDAD; i++) {
+            filtro.agregar("jti:" + i);
+        }
+
+        for (int i = 0; i < CAPACIDAD; i++) {
+            assertThat(filtro.puedeContener("jti:" + i)).as("jti:%d", i).isTrue();
+        }
+    }
+
+    @Test
+    void tasaDeFalsosPositivosCercanaAlUnoPorCientoAlLlenarse() {
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, 0.01);
+        for (int i = 0; i < CAPACIDAD; i++) {
+            filtro.agregar("jti:" + i);
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < CONSULTAS; i++) {
+            if (filtro.puedeContener("otro:" + i)) {
+                falsosPositivos++;
+            }
+        }
+
+        assertThat((double) falsosPositivos / CONSULTAS).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    void seDeclaraSaturadoAlAlcanzarLaCapacidad() {
+        FiltroBloom filtro = new FiltroBloom(3, 0.01);
+        filtro.agregar("a");
+        filtro.agregar("b");
+        assertThat(filtro.saturado()).isFalse();
+
+        filtro.agregar("c");
+        assertThat(filtro.saturado()).isTrue();
+    }
+}
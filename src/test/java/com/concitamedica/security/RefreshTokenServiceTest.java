@@ -0,0 +1,142 @@
+package com.concitamedica.security;
+
+import com.concitamedica.domain.paciente.PacienteService;
+import com.concitamedica.domain.rol.Rol;
+import com.concitamedica.domain.rol.RolRepository;
+import com.concitamedica.domain.usuario.RefreshToken;
+import com.concitamedica.domain.usuario.RefreshTokenRepository;
+import com.concitamedica.domain.usuario.Usuario;
+import com.concitamedica.domain.usuario.UsuarioRepository;
+import com.concitamedica.domain.usuario.UsuarioService;
+import com.concitamedica.domain.usuario.dto.CambioPasswordDTO;
+import com.concitamedica.domain.usuario.dto.LoginResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static com.concitamedica.domain.rol.Roles.ROLE_PACIENTE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class RefreshTokenServiceTest {
+
+    private static final String PASSWORD = "secreta123";
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RevocacionTokens revocacionTokens;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void rotarEmiteUnTokenNuevoDeLaMismaFamiliaYMarcaElAnteriorComoUsado() {
+        Usuario paciente = crearPaciente();
+        LoginResponseDTO sesion = refreshTokenService.iniciarSesion(paciente.getEmail());
+
+        LoginResponseDTO rotada = refreshTokenService.rotar(sesion.refreshToken());
+
+        assertThat(rotada.refreshToken()).isNotEqualTo(sesion.refreshToken());
+        assertThat(jwtService.validarToken(rotada.token())).isPresent();
+
+        RefreshToken anterior = buscar(sesion.refreshToken());
+        RefreshToken nuevo = buscar(rotada.refreshToken());
+        assertThat(anterior.isUsado()).isTrue();
+        assertThat(nuevo.isUsado()).isFalse();
+        assertThat(nuevo.getFamilia()).isEqualTo(anterior.getFamilia());
+        // Rotar no alarga la sesión: el token nuevo caduca cuando caducaba el del login.
+        assertThat(nuevo.getExpira()).isEqualTo(anterior.getExpira());
+    }
+
+    @Test
+    void reutilizarUnTokenRotadoRevocaLaFamiliaAunqueLaPeticionFalle() {
+        Usuario paciente = crearPaciente();
+        LoginResponseDTO sesion = refreshTokenService.iniciarSesion(paciente.getEmail());
+        LoginResponseDTO rotada = refreshTokenService.rotar(sesion.refreshToken());
+
+        assertThatThrownBy(() -> refreshTokenService.rotar(sesion.refreshToken()))
+                .isInstanceOf(BadCredentialsException.class);
+
+        // La revocación se confirma aunque rotar() termine con excepción (noRollbackFor).
+        assertThat(buscar(rotada.refreshToken()).isRevocado()).isTrue();
+        assertThatThrownBy(() -> refreshTokenService.rotar(rotada.refreshToken()))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void cambiarPasswordRevocaLosRefreshTokensYLosAccessTokensAnteriores() throws Exception {
+        Usuario paciente = crearPaciente();
+        LoginResponseDTO sesion = refreshTokenService.iniciarSesion(paciente.getEmail());
+        TokenVerificado accessToken = jwtService.validarToken(sesion.token()).orElseThrow();
+
+        // El iat del JWT tiene precisión de segundos: el corte debe caer en un segundo posterior.
+        Thread.sleep(1_000);
+        usuarioService.cambiarPassword(paciente.getEmail(), new CambioPasswordDTO(PASSWORD, "nuevaSecreta456"));
+
+        assertThat(buscar(sesion.refreshToken()).isRevocado()).isTrue();
+        assertThat(revocacionTokens.estaRevocado(accessToken)).isTrue();
+        assertThatThrownBy(() -> refreshTokenService.rotar(sesion.refreshToken()))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void darDeBajaAlPacienteRevocaSusSesiones() throws Exception {
+        Usuario paciente = crearPaciente();
+        LoginResponseDTO sesion = refreshTokenService.iniciarSesion(paciente.getEmail());
+        TokenVerificado accessToken = jwtService.validarToken(sesion.token()).orElseThrow();
+
+        Thread.sleep(1_000);
+        pacienteService.eliminarPaciente(paciente.getId());
+
+        assertThat(buscar(sesion.refreshToken()).isRevocado()).isTrue();
+        assertThat(revocacionTokens.estaRevocado(accessToken)).isTrue();
+        assertThatThrownBy(() -> refreshTokenService.rotar(sesion.refreshToken()))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    private RefreshToken buscar(String token) {
+        return refreshTokenRepository.findById(HexFormat.of().formatHex(Sha256.digest(token))).orElseThrow();
+    }
+
+    private Usuario crearPaciente() {
+        Rol rolPaciente = rolRepository.findByNombre(ROLE_PACIENTE).orElseThrow();
+        String sufijo = UUID.randomUUID().toString().substring(0, 8);
+        return usuarioRepository.save(Usuario.builder()
+                .nombre("Paciente")
+                .apellido("Sesiones")
+                .documento("7" + String.format("%07d", Math.abs(sufijo.hashCode()) % 10_000_000))
+                .email("sesiones-" + sufijo + "@email.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .genero("OTRO")
+                .rol(rolPaciente)
+                .build());
+    }
+}
@@ -0,0 +1,112 @@
+package com.concitamedica.security;
+
+import com.concitamedica.domain.usuario.SesionesRevocadas;
+import com.concitamedica.domain.usuario.TokenRevocado;
+import com.concitamedica.domain.usuario.TokenRevocadoRepository;
+import com.concitamedica.domain.usuario.Usuario;
+import com.concitamedica.domain.usuario.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RevocacionTokensTest {
+
+    private static final long DURACION_TOKEN_MS = Duration.ofMinutes(15).toMillis();
+    // Capacidad mínima para que unas pocas revocaciones obliguen a reconstruir el filtro.
+    private static final int CAPACIDAD = 2;
+
+    private final TokenRevocadoRepository tokenRevocadoRepository = mock(TokenRevocadoRepository.class);
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private RevocacionTokens revocacion;
+
+    @BeforeEach
+    void setUp() {
+        revocacion = new RevocacionTokens(tokenRevocadoRepository, usuarioRepository, DURACION_TOKEN_MS, CAPACIDAD);
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocacion.detener();
+    }
+
+    @Test
+    void revocarPorJtiSoloAfectaAEseToken() {
+        revocacion.cargar();
+        Instant ahora = Instant.now();
+        TokenVerificado cerrado = token("jti-1", "ana@email.com", ahora);
+        TokenVerificado otro = token("jti-2", "ana@email.com", ahora);
+
+        revocacion.revocar(cerrado);
+
+        assertThat(revocacion.estaRevocado(cerrado)).isTrue();
+        assertThat(revocacion.estaRevocado(otro)).isFalse();
+    }
+
+    @Test
+    void lasRevocacionesSobrevivenALaReconstruccionDelFiltro() {
+        revocacion.cargar();
+        Instant ahora = Instant.now();
+        List<TokenVerificado> revocados = IntStream.range(0, 10 * CAPACIDAD)
+                .mapToObj(i -> token("jti-" + i, "usuario" + i + "@email.com", ahora))
+                .toList();
+
+        revocados.forEach(revocacion::revocar);
+
+        assertThat(revocados).allMatch(revocacion::estaRevocado);
+    }
+
+    @Test
+    void elCorteDeUsuarioRevocaLosTokensEmitidosAntes() {
+        revocacion.cargar();
+        Instant desde = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusMillis(700);
+
+        revocacion.alRevocarSesiones(new SesionesRevocadas("ana@email.com", desde));
+
+        assertThat(revocacion.estaRevocado(token("jti-1", "ana@email.com", desde.minusSeconds(1)))).isTrue();
+        assertThat(revocacion.estaRevocado(token("jti-2", "ana@email.com", desde.plusSeconds(1)))).isFalse();
+        assertThat(revocacion.estaRevocado(token("jti-3", "luis@email.com", desde.minusSeconds(1)))).isFalse();
+    }
+
+    @Test
+    void unTokenEmitidoEnElMismoSegundoQueElCorteSigueValido() {
+        revocacion.cargar();
+        Instant desde = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusMillis(700);
+
+        revocacion.alRevocarSesiones(new SesionesRevocadas("ana@email.com", desde));
+
+        // El iat solo guarda segundos: un token emitido justo después del corte llega con el mismo segundo.
+        TokenVerificado emitidoTrasElCorte = token("jti-1", "ana@email.com", desde.truncatedTo(ChronoUnit.SECONDS));
+        assertThat(revocacion.estaRevocado(emitidoTrasElCorte)).isFalse();
+    }
+
+    @Test
+    void cargaLasRevocacionesGuardadas() {
+        Instant ahora = Instant.now();
+        when(tokenRevocadoRepository.findAllByExpiraAfter(any()))
+                .thenReturn(List.of(new TokenRevocado("jti-guardado", ahora.plusSeconds(600))));
+        when(usuarioRepository.findAllByTokensValidosDesdeAfter(any()))
+                .thenReturn(List.of(Usuario.builder().email("ana@email.com").tokensValidosDesde(ahora).build()));
+
+        revocacion.cargar();
+
+        assertThat(revocacion.estaRevocado(token("jti-guardado", "luis@email.com", ahora))).isTrue();
+        assertThat(revocacion.estaRevocado(token("jti-1", "ana@email.com", ahora.minusSeconds(60)))).isTrue();
+        assertThat(revocacion.estaRevocado(token("jti-2", "luis@email.com", ahora.minusSeconds(60)))).isFalse();
+    }
+
+    private static TokenVerificado token(String jti, String email, Instant emitido) {
+        return new TokenVerificado(jti, email, List.of("ROLE_PACIENTE"),
+                emitido.truncatedTo(ChronoUnit.SECONDS), emitido.plusMillis(DURACION_TOKEN_MS));
+    }
+}